@@ -0,0 +1,115 @@
+/**********************************************************************
+ * @file ConcurrentTreeBenchmark.java
+ * @brief This program implements the ConcurrentTreeBenchmark class, a JMH
+ * benchmark of mixed read/write workloads on a tree shared by several
+ * threads. It compares ConcurrentAvlTree with an AvlTree behind one global
+ * lock, which is how the lookup service shares AvlTree today. main runs
+ * every read ratio at 1, 2, 4 and 8 threads, so the throughput columns
+ * show how each engine scales.
+ *
+ * Build and run as described in TreeBenchmark.java, with main class
+ * ConcurrentTreeBenchmark.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConcurrentTreeBenchmark {
+    //The number of keys the tree starts with; operations use keys in [0, 2 * size).
+    @Param({"1000000"})
+    public int size;
+
+    //The percentage of operations that are contains; the rest are split
+    //evenly between insert and remove, so the tree stays about the same size.
+    @Param({"50", "90", "99"})
+    public int readPercent;
+
+    //The engine under test: "concurrent" is ConcurrentAvlTree, "locked" is an
+    //AvlTree guarded by one lock.
+    @Param({"concurrent", "locked"})
+    public String engine;
+
+    private ConcurrentAvlTree<Integer> concurrent;
+    private AvlTree<Integer> locked;
+    //engine.equals("concurrent"), decided once so mixed() does not compare strings.
+    private boolean useConcurrent;
+
+    //Fill the tree with every other key.
+    @Setup(Level.Trial)
+    public void setup() {
+        useConcurrent = engine.equals("concurrent");
+        concurrent = new ConcurrentAvlTree<>();
+        locked = new AvlTree<>();
+        for (int i = 0; i < 2 * size; i += 2) {
+            if (useConcurrent)
+                concurrent.insert(i);
+            else
+                locked.insert(i);
+        }
+    }
+
+    //One random operation on the shared tree.
+    @Benchmark
+    public boolean mixed() {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        Integer key = rand.nextInt(2 * size);
+        boolean read = rand.nextInt(100) < readPercent;
+        //The kind of write is drawn on its own, so inserts and removes stay
+        //even at every read ratio.
+        boolean insert = !read && rand.nextBoolean();
+        if (useConcurrent) {
+            if (read)
+                return concurrent.contains(key);
+            if (insert)
+                concurrent.insert(key);
+            else
+                concurrent.remove(key);
+            return false;
+        }
+        synchronized (locked) {
+            if (read)
+                return locked.contains(key);
+            if (insert)
+                locked.insert(key);
+            else
+                locked.remove(key);
+            return false;
+        }
+    }
+
+    //Run the benchmark at several thread counts.
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] {1, 2, 4, 8}) {
+            Options opt = new OptionsBuilder()
+                    .include(ConcurrentTreeBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+}
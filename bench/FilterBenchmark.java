@@ -0,0 +1,116 @@
+/**********************************************************************
+ * @file FilterBenchmark.java
+ * @brief This program implements the FilterBenchmark class, a JMH
+ * benchmark of compound filters on the categorical Volcano columns, such
+ * as "Stratovolcano AND Historical AND NOT West Indies" with an elevation
+ * range, answered by a VolcanoBitmapIndex query and by a scan that tests
+ * every record. Above the size of the dataset the records are repeated
+ * with new numbers, so the value frequencies stay realistic.
+ *
+ * Build and run as described in TreeBenchmark.java, with main class
+ * FilterBenchmark.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+    //The number of records searched.
+    @Param({"1500", "100000", "1000000"})
+    public int n;
+
+    private ArrayList<Volcano> volcanoes;
+    private VolcanoBitmapIndex index;
+
+    //Read the dataset, repeat it to n records, and build the index.
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ArrayList<Volcano> dataset = Proj2.readVolcanoes(TreeBenchmark.DATASET, n);
+        volcanoes = new ArrayList<>(dataset);
+        for (int i = dataset.size(); i < n; i++) {
+            Volcano v = new Volcano(dataset.get(i % dataset.size()));
+            v.setNumber("copy-" + i);
+            volcanoes.add(v);
+        }
+        Collections.sort(volcanoes);
+        index = new VolcanoBitmapIndex(AvlTree.buildFromSorted(volcanoes));
+    }
+
+    //Three equality predicates, answered by the index.
+    @Benchmark
+    public List<Volcano> indexEquals() {
+        return index.where()
+                .is(VolcanoBitmapIndex.Column.TYPE, "Stratovolcano")
+                .is(VolcanoBitmapIndex.Column.STATUS, "Historical")
+                .is(VolcanoBitmapIndex.Column.REGION, "West Indies")
+                .volcanoes();
+    }
+
+    //Three equality predicates, answered by a scan.
+    @Benchmark
+    public List<Volcano> scanEquals() {
+        ArrayList<Volcano> found = new ArrayList<>();
+        for (Volcano v : volcanoes)
+            if (v.getType().equals("Stratovolcano") && v.getStatus().equals("Historical")
+                    && v.getRegion().equals("West Indies"))
+                found.add(v);
+        return found;
+    }
+
+    //OR, NOT and an elevation range, answered by the index.
+    @Benchmark
+    public List<Volcano> indexMixed() {
+        return index.where()
+                .isAnyOf(VolcanoBitmapIndex.Column.STATUS, "Historical", "Holocene")
+                .isNot(VolcanoBitmapIndex.Column.TYPE, "Stratovolcano")
+                .elevationBetween(2000, 3000)
+                .volcanoes();
+    }
+
+    //OR, NOT and an elevation range, answered by a scan.
+    @Benchmark
+    public List<Volcano> scanMixed() {
+        ArrayList<Volcano> found = new ArrayList<>();
+        for (Volcano v : volcanoes)
+            if ((v.getStatus().equals("Historical") || v.getStatus().equals("Holocene"))
+                    && !v.getType().equals("Stratovolcano") && v.getElevation() >= 2000 && v.getElevation() <= 3000)
+                found.add(v);
+        return found;
+    }
+
+    //Run every benchmark in this class.
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FilterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
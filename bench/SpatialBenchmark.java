@@ -0,0 +1,138 @@
+/**********************************************************************
+ * @file SpatialBenchmark.java
+ * @brief This program implements the SpatialBenchmark class, a JMH
+ * benchmark of proximity queries: the 10 nearest volcanoes and every
+ * volcano within 200 km of a random point, answered by VolcanoKdTree and
+ * by a linear scan that computes the great-circle distance to every
+ * record. Above the size of the dataset the records are padded with
+ * random points, to show how each approach scales.
+ *
+ * Build and run as described in TreeBenchmark.java, with main class
+ * SpatialBenchmark.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SpatialBenchmark {
+    //The number of records searched.
+    @Param({"1500", "100000", "1000000"})
+    public int n;
+
+    //The number of neighbours and the radius in km.
+    static final int K = 10;
+    static final double RADIUS_KM = 200;
+
+    private ArrayList<Volcano> volcanoes;
+    private VolcanoKdTree tree;
+    //Query points, used in turn so the branch predictor cannot learn one query.
+    private double[] queryLat;
+    private double[] queryLon;
+    private int next;
+
+    //Read the dataset, pad it with random points to n records, and build the tree.
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        volcanoes = Proj2.readVolcanoes(TreeBenchmark.DATASET, n);
+        Random rand = new Random(42);
+        while (volcanoes.size() < n) {
+            double lat = Math.toDegrees(Math.asin(2 * rand.nextDouble() - 1));
+            double lon = rand.nextDouble() * 360 - 180;
+            volcanoes.add(new Volcano("", "", "", "", "", lat, lon, 0, "", "", ""));
+        }
+        tree = new VolcanoKdTree(volcanoes);
+        queryLat = new double[1024];
+        queryLon = new double[1024];
+        for (int i = 0; i < queryLat.length; i++) {
+            //Queries start at records, like alerts near a known volcano.
+            Volcano v = volcanoes.get(rand.nextInt(volcanoes.size()));
+            queryLat[i] = v.getLatitude() + rand.nextGaussian();
+            queryLon[i] = v.getLongitude() + rand.nextGaussian();
+        }
+    }
+
+    //The K nearest volcanoes from the k-d tree.
+    @Benchmark
+    public List<Volcano> kdNearest() {
+        int i = next++ & 1023;
+        return tree.nearest(queryLat[i], queryLon[i], K);
+    }
+
+    //The K nearest volcanoes from a scan that keeps the best K in a heap.
+    @Benchmark
+    public List<Volcano> scanNearest() {
+        int i = next++ & 1023;
+        PriorityQueue<double[]> best = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+        for (int j = 0; j < volcanoes.size(); j++) {
+            Volcano v = volcanoes.get(j);
+            double d = VolcanoKdTree.distanceKm(queryLat[i], queryLon[i], v.getLatitude(), v.getLongitude());
+            if (best.size() < K) {
+                best.add(new double[] {d, j});
+            } else if (d < best.peek()[0]) {
+                best.poll();
+                best.add(new double[] {d, j});
+            }
+        }
+        ArrayList<Volcano> found = new ArrayList<>();
+        for (double[] hit : best)
+            found.add(volcanoes.get((int) hit[1]));
+        return found;
+    }
+
+    //Every volcano within RADIUS_KM from the k-d tree.
+    @Benchmark
+    public List<Volcano> kdRadius() {
+        int i = next++ & 1023;
+        return tree.withinRadius(queryLat[i], queryLon[i], RADIUS_KM);
+    }
+
+    //Every volcano within RADIUS_KM from a scan.
+    @Benchmark
+    public List<Volcano> scanRadius() {
+        int i = next++ & 1023;
+        ArrayList<Volcano> found = new ArrayList<>();
+        for (int j = 0; j < volcanoes.size(); j++) {
+            Volcano v = volcanoes.get(j);
+            if (VolcanoKdTree.distanceKm(queryLat[i], queryLon[i], v.getLatitude(), v.getLongitude()) <= RADIUS_KM)
+                found.add(v);
+        }
+        return found;
+    }
+
+    //Run every benchmark in this class.
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SpatialBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,277 @@
+/**********************************************************************
+ * @file TreeBenchmark.java
+ * @brief This program implements the TreeBenchmark class, a JMH benchmark
+ * suite for the BST, treap-mode BST and AvlTree insert, search and remove
+ * operations. Comparing the SORTED and SHUFFLED orders shows how much each
+ * depends on insertion order. It replaces the single-shot System.nanoTime
+ * timings in Proj2.main, which run once with no warmup and mostly measure
+ * JIT compilation and class loading. The insert and search benchmarks
+ * report average time and throughput. The remove benchmarks empty a batch
+ * of prebuilt trees once per iteration and report the single-shot time
+ * per tree. main attaches the GC profiler so the allocation rate per
+ * operation is reported as well.
+ *
+ * Build and run (from the project root, with the JMH jars in lib/):
+ *   javac -d out src/*.java
+ *   javac -cp out:lib/* -d out-bench bench/*.java
+ *   java -cp out:out-bench:lib/* TreeBenchmark
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TreeBenchmark {
+
+    //The dataset that every benchmark reads from. It can be overridden with -Ddataset=<file>.
+    static final String DATASET = System.getProperty("dataset", "src/volcanoes_around_the_world_in_2021.csv");
+
+    //The records in insertion order, shared by every benchmark in a trial.
+    @State(Scope.Benchmark)
+    public static class Data {
+        //N is the number of records read from the dataset.
+        @Param({"100", "500", "1000", "1500"})
+        public int n;
+
+        //The order the records are inserted in.
+        @Param({"ORIGINAL", "SORTED", "SHUFFLED"})
+        public String order;
+
+        //The records in file order, used as the search and remove keys like Proj2 does.
+        public ArrayList<Volcano> orgList;
+        //The records in the order selected by the order parameter.
+        public ArrayList<Volcano> insertList;
+
+        //Read the dataset and arrange the insertion order once per trial.
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            orgList = Proj2.readVolcanoes(DATASET, n);
+            insertList = new ArrayList<>(orgList);
+            if (order.equals("SORTED")) {
+                Collections.sort(insertList);
+            } else if (order.equals("SHUFFLED")) {
+                //A fixed seed keeps the shuffled order the same across forks.
+                Collections.shuffle(insertList, new Random(42));
+            }
+        }
+    }
+
+    //Trees built once per trial, used by the search benchmarks.
+    @State(Scope.Benchmark)
+    public static class BuiltTrees {
+        public BST<Volcano> bst;
+        public BST<Volcano> treap;
+        public AvlTree<Volcano> avl;
+
+        //Build every tree from the insertion list.
+        @Setup(Level.Trial)
+        public void setup(Data data) {
+            bst = new BST<>();
+            treap = BST.treap(42);
+            avl = new AvlTree<>();
+            for (Volcano v : data.insertList) {
+                bst.insert(v);
+                treap.insert(v);
+                avl.insert(v);
+            }
+        }
+    }
+
+    //The number of trees each remove benchmark empties in one invocation.
+    static final int REMOVE_BATCH = 100;
+
+    //BSTs rebuilt before every iteration, since bstRemove empties them. Each
+    //remove benchmark has its own state, so only the tree it uses is built.
+    @State(Scope.Thread)
+    public static class FreshBsts {
+        public ArrayList<BST<Volcano>> trees;
+
+        //Build REMOVE_BATCH BSTs from the insertion list.
+        @Setup(Level.Iteration)
+        public void setup(Data data) {
+            trees = new ArrayList<>(REMOVE_BATCH);
+            for (int t = 0; t < REMOVE_BATCH; t++) {
+                BST<Volcano> tree = new BST<>();
+                for (Volcano v : data.insertList) {
+                    tree.insert(v);
+                }
+                trees.add(tree);
+            }
+        }
+    }
+
+    //Treaps rebuilt before every iteration, since treapRemove empties them.
+    @State(Scope.Thread)
+    public static class FreshTreaps {
+        public ArrayList<BST<Volcano>> trees;
+
+        //Build REMOVE_BATCH treaps from the insertion list.
+        @Setup(Level.Iteration)
+        public void setup(Data data) {
+            trees = new ArrayList<>(REMOVE_BATCH);
+            for (int t = 0; t < REMOVE_BATCH; t++) {
+                BST<Volcano> tree = BST.treap(42);
+                for (Volcano v : data.insertList) {
+                    tree.insert(v);
+                }
+                trees.add(tree);
+            }
+        }
+    }
+
+    //AvlTrees rebuilt before every iteration, since avlRemove empties them.
+    @State(Scope.Thread)
+    public static class FreshAvlTrees {
+        public ArrayList<AvlTree<Volcano>> trees;
+
+        //Build REMOVE_BATCH AvlTrees from the insertion list.
+        @Setup(Level.Iteration)
+        public void setup(Data data) {
+            trees = new ArrayList<>(REMOVE_BATCH);
+            for (int t = 0; t < REMOVE_BATCH; t++) {
+                AvlTree<Volcano> tree = new AvlTree<>();
+                for (Volcano v : data.insertList) {
+                    tree.insert(v);
+                }
+                trees.add(tree);
+            }
+        }
+    }
+
+    //Insert every record into a new BST.
+    @Benchmark
+    public BST<Volcano> bstInsert(Data data) {
+        BST<Volcano> tree = new BST<>();
+        for (int i = 0; i < data.insertList.size(); i++) {
+            tree.insert(data.insertList.get(i));
+        }
+        return tree;
+    }
+
+    //Insert every record into a new treap-mode BST.
+    @Benchmark
+    public BST<Volcano> treapInsert(Data data) {
+        BST<Volcano> tree = BST.treap(42);
+        for (int i = 0; i < data.insertList.size(); i++) {
+            tree.insert(data.insertList.get(i));
+        }
+        return tree;
+    }
+
+    //Insert every record into a new AvlTree.
+    @Benchmark
+    public AvlTree<Volcano> avlInsert(Data data) {
+        AvlTree<Volcano> tree = new AvlTree<>();
+        for (int i = 0; i < data.insertList.size(); i++) {
+            tree.insert(data.insertList.get(i));
+        }
+        return tree;
+    }
+
+    //Search the BST for every record in file order.
+    @Benchmark
+    public void bstSearch(Data data, BuiltTrees trees, Blackhole bh) {
+        for (int i = 0; i < data.orgList.size(); i++) {
+            bh.consume(trees.bst.search(data.orgList.get(i)));
+        }
+    }
+
+    //Search the treap for every record in file order.
+    @Benchmark
+    public void treapSearch(Data data, BuiltTrees trees, Blackhole bh) {
+        for (int i = 0; i < data.orgList.size(); i++) {
+            bh.consume(trees.treap.search(data.orgList.get(i)));
+        }
+    }
+
+    //Search the AvlTree for every record in file order.
+    @Benchmark
+    public void avlSearch(Data data, BuiltTrees trees, Blackhole bh) {
+        for (int i = 0; i < data.orgList.size(); i++) {
+            bh.consume(trees.avl.contains(data.orgList.get(i)));
+        }
+    }
+
+    //Remove every record in file order from each BST of the batch. The trees
+    //are only full once per iteration, so each iteration is one timed
+    //invocation, and the time is reported per tree.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OperationsPerInvocation(REMOVE_BATCH)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 50)
+    public void bstRemove(Data data, FreshBsts trees, Blackhole bh) {
+        for (BST<Volcano> tree : trees.trees) {
+            for (int i = 0; i < data.orgList.size(); i++) {
+                bh.consume(tree.remove(data.orgList.get(i)));
+            }
+        }
+    }
+
+    //Remove every record in file order from each treap of the batch.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OperationsPerInvocation(REMOVE_BATCH)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 50)
+    public void treapRemove(Data data, FreshTreaps trees, Blackhole bh) {
+        for (BST<Volcano> tree : trees.trees) {
+            for (int i = 0; i < data.orgList.size(); i++) {
+                bh.consume(tree.remove(data.orgList.get(i)));
+            }
+        }
+    }
+
+    //Remove every record in file order from each AvlTree of the batch.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OperationsPerInvocation(REMOVE_BATCH)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 50)
+    public void avlRemove(Data data, FreshAvlTrees trees, Blackhole bh) {
+        for (AvlTree<Volcano> tree : trees.trees) {
+            for (int i = 0; i < data.orgList.size(); i++) {
+                bh.consume(tree.remove(data.orgList.get(i)));
+            }
+        }
+    }
+
+    //Run every benchmark in this class with the GC profiler attached, so the
+    //results include the allocation rate per operation (gc.alloc.rate.norm).
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TreeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,410 @@
+/**********************************************************************
+ * @file ArrayAvlTree.java
+ * @brief This program implements the ArrayAvlTree class, an AVL tree with
+ * the same public operations as AvlTree that keeps its nodes in parallel
+ * arrays instead of one AvlNode object per element. A node is an index:
+ * left[i], right[i] and height[i] hold its links and height, and
+ * elements[i] holds its item. Index 0 is a sentinel that stands for an
+ * empty subtree, with height -1. Slots freed by remove are kept on a free
+ * list and reused by later inserts.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+// ArrayAvlTree class
+//
+// CONSTRUCTION: with no initializer or an initial capacity
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// Comparable remove( x ) --> Remove x; return the removed item, or null
+// boolean contains( x )  --> Return true if x is present
+// Comparable search( x ) --> Return the item equal to x, or null
+// Comparable findMin( )  --> Return smallest item
+// Comparable findMax( )  --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// void printTree( )      --> Print tree in sorted order
+// ******************ERRORS********************************
+// Throws UnderflowException as appropriate
+
+import java.util.Arrays;
+
+/**
+ * Implements an AVL tree whose nodes live in arrays.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public class ArrayAvlTree<AnyType extends Comparable<? super AnyType>> implements SortedIndex<AnyType> {
+
+    /**
+     * Construct the tree.
+     */
+    public ArrayAvlTree() {
+        this(16);
+    }
+
+    /**
+     * Construct the tree with room for capacity items before the arrays grow.
+     *
+     * @param capacity the number of items to allocate room for.
+     */
+    public ArrayAvlTree(int capacity) {
+        int n = Math.max(capacity, 1) + 1;
+        left = new int[n];
+        right = new int[n];
+        height = new int[n];
+        elements = new Object[n];
+        height[NIL] = -1;
+        makeEmpty();
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        root = insert(x, root);
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     *
+     * @param x the item to remove.
+     * @return the item that was removed, or null if x was not found.
+     */
+    public AnyType remove(AnyType x) {
+        AnyType found = search(x);
+        if (found != null)
+            root = remove(x, root);
+        return found;
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return smallest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMin() {
+        if (isEmpty())
+            throw new UnderflowException();
+        return element(findMin(root));
+    }
+
+    /**
+     * Find the largest item in the tree.
+     *
+     * @return the largest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMax() {
+        if (isEmpty())
+            throw new UnderflowException();
+        return element(findMax(root));
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains(AnyType x) {
+        return search(x) != null;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return the matching item in the tree, or null if x is not found.
+     */
+    public AnyType search(AnyType x) {
+        int t = root;
+        while (t != NIL) {
+            int compareResult = x.compareTo(element(t));
+            if (compareResult < 0)
+                t = left[t];
+            else if (compareResult > 0)
+                t = right[t];
+            else
+                return element(t);
+        }
+        return null;
+    }
+
+    /**
+     * Make the tree logically empty. The arrays keep their capacity.
+     */
+    public void makeEmpty() {
+        root = NIL;
+        next = 1;
+        free = NIL;
+        Arrays.fill(elements, null);
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree() {
+        if (isEmpty())
+            System.out.println("Empty tree");
+        else
+            printTree(root);
+    }
+
+    public void checkBalance() {
+        checkBalance(root);
+    }
+
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    /**
+     * The index that stands for an empty subtree.
+     */
+    private static final int NIL = 0;
+
+    /**
+     * Internal method to insert into a subtree.
+     *
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private int insert(AnyType x, int t) {
+        if (t == NIL)
+            return allocate(x);
+
+        //The child is read into a local first: the insert below may grow the
+        //arrays, and left[t] = insert(...) would store into the old array.
+        int compareResult = x.compareTo(element(t));
+        if (compareResult < 0) {
+            int l = insert(x, left[t]);
+            left[t] = l;
+        } else if (compareResult > 0) {
+            int r = insert(x, right[t]);
+            right[t] = r;
+        } else
+            return t;  // Duplicate; do nothing
+        return balance(t);
+    }
+
+    /**
+     * Internal method to remove from a subtree.
+     *
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private int remove(AnyType x, int t) {
+        if (t == NIL)
+            return NIL;   // Item not found; do nothing
+
+        int compareResult = x.compareTo(element(t));
+        if (compareResult < 0)
+            left[t] = remove(x, left[t]);
+        else if (compareResult > 0)
+            right[t] = remove(x, right[t]);
+        else if (left[t] != NIL && right[t] != NIL) {
+            //Two children: replace with the largest item in the left subtree.
+            elements[t] = elements[findMax(left[t])];
+            left[t] = remove(element(t), left[t]);
+        } else {
+            int child = (left[t] != NIL) ? left[t] : right[t];
+            release(t);
+            return child;
+        }
+        return balance(t);
+    }
+
+    // Assume t is either balanced or within one of being balanced
+    private int balance(int t) {
+        if (height[left[t]] - height[right[t]] > ALLOWED_IMBALANCE) {
+            if (height[left[left[t]]] >= height[right[left[t]]])
+                t = rotateWithLeftChild(t);
+            else
+                t = doubleWithLeftChild(t);
+        } else if (height[right[t]] - height[left[t]] > ALLOWED_IMBALANCE) {
+            if (height[right[right[t]]] >= height[left[right[t]]])
+                t = rotateWithRightChild(t);
+            else
+                t = doubleWithRightChild(t);
+        }
+        height[t] = Math.max(height[left[t]], height[right[t]]) + 1;
+        return t;
+    }
+
+    private int checkBalance(int t) {
+        if (t == NIL)
+            return -1;
+
+        int hl = checkBalance(left[t]);
+        int hr = checkBalance(right[t]);
+        if (Math.abs(height[left[t]] - height[right[t]]) > 1 ||
+                height[left[t]] != hl || height[right[t]] != hr)
+            System.out.println("OOPS!!");
+
+        return height[t];
+    }
+
+    /**
+     * Internal method to find the smallest item in a subtree.
+     *
+     * @param t the node that roots the tree.
+     * @return node containing the smallest item.
+     */
+    private int findMin(int t) {
+        while (left[t] != NIL)
+            t = left[t];
+        return t;
+    }
+
+    /**
+     * Internal method to find the largest item in a subtree.
+     *
+     * @param t the node that roots the tree.
+     * @return node containing the largest item.
+     */
+    private int findMax(int t) {
+        while (right[t] != NIL)
+            t = right[t];
+        return t;
+    }
+
+    /**
+     * Internal method to print a subtree in (sorted) order.
+     *
+     * @param t the node that roots the tree.
+     */
+    private void printTree(int t) {
+        if (t == NIL)
+            return;
+        printTree(left[t]);
+        System.out.println(elements[t]);
+        printTree(right[t]);
+    }
+
+    /**
+     * Return the item stored in node t.
+     */
+    @SuppressWarnings("unchecked")
+    private AnyType element(int t) {
+        return (AnyType) elements[t];
+    }
+
+    /**
+     * Take a slot for a new leaf holding x, from the free list if it has
+     * one, growing the arrays if they are full.
+     */
+    private int allocate(AnyType x) {
+        int t;
+        if (free != NIL) {
+            t = free;
+            free = left[t];
+        } else {
+            if (next == elements.length)
+                grow();
+            t = next++;
+        }
+        left[t] = NIL;
+        right[t] = NIL;
+        height[t] = 0;
+        elements[t] = x;
+        return t;
+    }
+
+    /**
+     * Put slot t on the free list. The free list is linked through left[].
+     */
+    private void release(int t) {
+        elements[t] = null;   // Let the item be garbage collected
+        left[t] = free;
+        free = t;
+    }
+
+    /**
+     * Double the length of every array.
+     */
+    private void grow() {
+        int n = elements.length * 2;
+        left = Arrays.copyOf(left, n);
+        right = Arrays.copyOf(right, n);
+        height = Arrays.copyOf(height, n);
+        elements = Arrays.copyOf(elements, n);
+    }
+
+    /**
+     * Rotate binary tree node with left child.
+     * For AVL trees, this is a single rotation for case 1.
+     * Update heights, then return new root.
+     */
+    private int rotateWithLeftChild(int k2) {
+        int k1 = left[k2];
+        left[k2] = right[k1];
+        right[k1] = k2;
+        height[k2] = Math.max(height[left[k2]], height[right[k2]]) + 1;
+        height[k1] = Math.max(height[left[k1]], height[k2]) + 1;
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     * For AVL trees, this is a single rotation for case 4.
+     * Update heights, then return new root.
+     */
+    private int rotateWithRightChild(int k1) {
+        int k2 = right[k1];
+        right[k1] = left[k2];
+        left[k2] = k1;
+        height[k1] = Math.max(height[left[k1]], height[right[k1]]) + 1;
+        height[k2] = Math.max(height[right[k2]], height[k1]) + 1;
+        return k2;
+    }
+
+    /**
+     * Double rotate binary tree node: first left child
+     * with its right child; then node k3 with new left child.
+     * For AVL trees, this is a double rotation for case 2.
+     * Update heights, then return new root.
+     */
+    private int doubleWithLeftChild(int k3) {
+        left[k3] = rotateWithRightChild(left[k3]);
+        return rotateWithLeftChild(k3);
+    }
+
+    /**
+     * Double rotate binary tree node: first right child
+     * with its left child; then node k1 with new right child.
+     * For AVL trees, this is a double rotation for case 3.
+     * Update heights, then return new root.
+     */
+    private int doubleWithRightChild(int k1) {
+        right[k1] = rotateWithLeftChild(right[k1]);
+        return rotateWithRightChild(k1);
+    }
+
+    /**
+     * The node arrays. Slot i of each array belongs to node i.
+     */
+    private int[] left;
+    private int[] right;
+    private int[] height;
+    private Object[] elements;
+
+    /**
+     * The root node, the first slot never used, and the head of the free list.
+     */
+    private int root;
+    private int next;
+    private int free;
+}
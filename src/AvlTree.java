@@ -2,34 +2,63 @@
  * @file AvlTree.java
  * @brief This program implements the AvlTree and AvlNode classes. The
  * class contains various operations that can be performed on an AVL Tree.
+ * The tree is Iterable, and stream() and parallelStream() use a
+ * Spliterator that splits off whole subtrees. Every node knows its subtree
+ * size, so each half reports its exact size and parallel pipelines can
+ * divide the work without copying the items out first.
  * @author Wynne Greene
  * @date: October 24, 2024
  ***********************************************************************/
 
 // AvlTree class
 //
-// CONSTRUCTION: with no initializer
+// CONSTRUCTION: with no initializer, or buildFromSorted( list )
 //
 // ******************PUBLIC OPERATIONS*********************
 // void insert( x )       --> Insert x
-// void remove( x )       --> Remove x (unimplemented)
 // boolean contains( x )  --> Return true if x is present
-// boolean remove( x )    --> Return true if x was present
+// Comparable search( x ) --> Return the item equal to x, or null
+// Comparable remove( x ) --> Return the removed item, or null
 // Comparable findMin( )  --> Return smallest item
 // Comparable findMax( )  --> Return largest item
+// int size( )            --> Return the number of items
+// int rank( x )          --> Return the number of items less than x
+// Comparable select( k ) --> Return the item of rank k
+// int countInRange( lo, hi ) --> Return the number of items in [lo, hi]
+// List rangeQuery( lo, hi )   --> Return the items in [lo, hi] in order
+// Iterator rangeIterator( lo, hi ) --> Iterate lazily over items in [lo, hi]
+// Iterator iterator( )   --> Iterate over every item in order
+// Stream stream( )       --> Return a stream of the items in order
+// Stream parallelStream( ) --> Return a parallel stream that splits by subtree
 // boolean isEmpty( )     --> Return true if empty; else false
 // void makeEmpty( )      --> Remove all items
 // void printTree( )      --> Print tree in sorted order
+// AvlTree split( x )     --> Keep items < x; return items > x
+// void join( x, t )      --> Append x and then every item of t
+// void union( t )        --> Add every item of t
+// void intersection( t ) --> Keep only items also in t
+// void difference( t )   --> Remove every item of t
 // ******************ERRORS********************************
 // Throws UnderflowException as appropriate
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implements an AVL tree.
  * Note that all "matching" is based on the compareTo method.
  */
-public class AvlTree<AnyType extends Comparable<? super AnyType>> {
+public class AvlTree<AnyType extends Comparable<? super AnyType>> implements SortedIndex<AnyType>, Iterable<AnyType> {
 
     /**
      * Construct the tree.
@@ -39,63 +68,192 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         root = null;
     }
 
+    /**
+     * Build a balanced tree from items already in ascending order, in linear
+     * time and with no rotations. The middle item of each range becomes the
+     * root of its subtree. Items that compare equal to the one before them
+     * are skipped, the same as insert ignores duplicates.
+     *
+     * @param sorted the items in ascending order.
+     * @return the new tree.
+     * @throws IllegalArgumentException if the items are not in order.
+     */
+    public static <AnyType extends Comparable<? super AnyType>> AvlTree<AnyType> buildFromSorted(List<? extends AnyType> sorted) {
+        //Copy the distinct items to an array so the halves can be indexed in constant time.
+        Object[] items = new Object[sorted.size()];
+        int n = 0;
+        int i = 0;
+        for (AnyType x : sorted) {
+            if (n > 0) {
+                int compareResult = x.compareTo(AvlTree.<AnyType>element(items, n - 1));
+                if (compareResult < 0)
+                    throw new IllegalArgumentException("list is not sorted at index " + i);
+                if (compareResult == 0) {
+                    i++;
+                    continue;
+                }
+            }
+            items[n++] = x;
+            i++;
+        }
+        AvlTree<AnyType> tree = new AvlTree<>();
+        tree.root = buildFromSorted(items, 0, n);
+        return tree;
+    }
+
+    /**
+     * Internal method to build the subtree for items[lo, hi).
+     *
+     * @return the root of the subtree, with its height set.
+     */
+    private static <AnyType> AvlNode<AnyType> buildFromSorted(Object[] items, int lo, int hi) {
+        if (lo >= hi)
+            return null;
+        int mid = (lo + hi) >>> 1;
+        AvlNode<AnyType> t = new AvlNode<>(AvlTree.<AnyType>element(items, mid),
+                buildFromSorted(items, lo, mid), buildFromSorted(items, mid + 1, hi));
+        t.height = Math.max(t.left == null ? -1 : t.left.height, t.right == null ? -1 : t.right.height) + 1;
+        t.size = hi - lo;
+        return t;
+    }
+
+    /**
+     * Return items[i] as an AnyType.
+     */
+    @SuppressWarnings("unchecked")
+    private static <AnyType> AnyType element(Object[] items, int i) {
+        return (AnyType) items[i];
+    }
+
     /**
      * Insert into the tree; duplicates are ignored.
      *
      * @param x the item to insert.
      */
     public void insert(AnyType x) {
-        root = insert(x, root);
+        if (root == null) {
+            root = new AvlNode<>(x);
+            return;
+        }
+
+        // Walk down to the empty spot for x, remembering the path
+        AvlNode<AnyType>[] path = scratchPath();
+        int depth = 0;
+        AvlNode<AnyType> t = root;
+        while (true) {
+            path[depth++] = t;
+            int compareResult = x.compareTo(t.element);
+            if (compareResult < 0) {
+                if (t.left == null) {
+                    t.left = new AvlNode<>(x);
+                    break;
+                }
+                t = t.left;
+            } else if (compareResult > 0) {
+                if (t.right == null) {
+                    t.right = new AvlNode<>(x);
+                    break;
+                }
+                t = t.right;
+            } else
+                return;  // Duplicate; do nothing
+        }
+        // Every node on the path gained one descendant
+        for (int i = 0; i < depth; i++)
+            path[i].size++;
+        retrace(path, depth);
     }
 
     /**
      * Remove from the tree. Nothing is done if x is not found.
      *
      * @param x the item to remove.
+     * @return the item that was removed, or null if x was not found.
      */
-    public void remove(AnyType x) {
-        root = remove(x, root);
-    }
+    public AnyType remove(AnyType x) {
+        // Walk down to x, remembering the path
+        AvlNode<AnyType>[] path = scratchPath();
+        int depth = 0;
+        AvlNode<AnyType> t = root;
+        while (t != null) {
+            int compareResult = x.compareTo(t.element);
+            if (compareResult == 0)
+                break;
+            path[depth++] = t;
+            t = compareResult < 0 ? t.left : t.right;
+        }
+        if (t == null)
+            return null;   // Item not found; do nothing
 
+        AnyType found = t.element;
+        if (t.left != null && t.right != null) {
+            // The node has two children. Replace the node's data with the
+            // largest data in the left subtree and unlink that node instead,
+            // which has no right child.
+            path[depth++] = t;
+            AvlNode<AnyType> max = t.left;
+            while (max.right != null) {
+                path[depth++] = max;
+                max = max.right;
+            }
+            t.element = max.element;
+            t = max;
+        }
+        // t has at most one child, which takes its place
+        replaceChild(path, depth, t, t.left != null ? t.left : t.right);
+        // Every node on the path lost one descendant
+        for (int i = 0; i < depth; i++)
+            path[i].size--;
+        retrace(path, depth);
+        return found;
+    }
 
     /**
-     * Internal method to remove from a subtree.
+     * Internal method to rebalance the ancestors of a change after an insert
+     * or remove, from path[depth - 1] up to the root. It stops at the first
+     * ancestor whose height did not change, since nothing above it can be out
+     * of balance. After an insert that is at most one rotation up; after a
+     * remove it can go all the way to the root.
      *
-     * @param x the item to remove.
-     * @param t the node that roots the subtree.
-     * @return the new root of the subtree.
+     * @param path  the nodes from the root down to the parent of the change.
+     * @param depth the number of nodes in path.
      */
-    private AvlNode<AnyType> remove(AnyType x, AvlNode<AnyType> t) {
-        // FINISH ME
-        if (t == null) {
-            return null;
+    private void retrace(AvlNode<AnyType>[] path, int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            AvlNode<AnyType> t = path[i];
+            int oldHeight = t.height;
+            AvlNode<AnyType> b = balance(t);
+            if (b != t)
+                replaceChild(path, i, t, b);
+            if (b.height == oldHeight)
+                return;
         }
-        //Compare the key with the current node. If its value is less than the current
-        //Node, it should be in the node's left subtree. Otherwise, it goes in the right.
-        if (t.element.compareTo(x) > 0) {
-            t.left = remove(x, t.left);
-        } else if (t.element.compareTo(x) < 0) {
-            t.right = remove(x, t.right);
-        } else {
-            //After finding the key, remove it.
-            //Check for a leaf node.
-            if (t.left == null && t.right == null) {
-                return null;
-            }
-            //Check for if the node has one child.
-            if (t.left == null)
-                return t.right;
-            else if (t.right == null)
-                return t.left;
-            else {
-                //The node has two children. Replace the node's data with
-                //the largest data in the left subtree and delete the node.
-                AvlNode<AnyType> temp = findMax(t.left);
-                t.element = temp.element;
-                t.left = remove(t.element, t.left);
-            }
-        }
-        return t;
+    }
+
+    /**
+     * Internal method to put subtree b in the place of subtree t, whose
+     * parent is path[i - 1], or at the root if i is 0.
+     */
+    private void replaceChild(AvlNode<AnyType>[] path, int i, AvlNode<AnyType> t, AvlNode<AnyType> b) {
+        if (i == 0)
+            root = b;
+        else if (path[i - 1].left == t)
+            path[i - 1].left = b;
+        else
+            path[i - 1].right = b;
+    }
+
+    /**
+     * Return the tree's scratch array for a root-to-leaf path, big enough for
+     * any path after one insert. It is only replaced when the tree has grown
+     * taller than it, so insert and remove do not allocate one per call.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private AvlNode<AnyType>[] scratchPath() {
+        int needed = height(root) + 2;
+        if (pathScratch == null || pathScratch.length < needed)
+            pathScratch = (AvlNode<AnyType>[]) new AvlNode[needed];
+        return pathScratch;
     }
 
     /**
@@ -127,7 +285,159 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if x is found.
      */
     public boolean contains(AnyType x) {
-        return contains(x, root);
+        return search(x) != null;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return the matching item in the tree, or null if x is not found.
+     */
+    public AnyType search(AnyType x) {
+        AvlNode<AnyType> t = root;
+        while (t != null) {
+            int compareResult = x.compareTo(t.element);
+            if (compareResult < 0)
+                t = t.left;
+            else if (compareResult > 0)
+                t = t.right;
+            else
+                return t.element;
+        }
+        return null;
+    }
+
+    /**
+     * Return the number of items in the tree, in constant time.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Return the number of items less than x, in O(log n) time. x need not
+     * be in the tree. rank(x) / size() is the fraction of items below x.
+     *
+     * @param x the item to rank.
+     * @return the number of items less than x.
+     */
+    public int rank(AnyType x) {
+        int rank = 0;
+        AvlNode<AnyType> t = root;
+        while (t != null) {
+            int compareResult = x.compareTo(t.element);
+            if (compareResult <= 0)
+                t = t.left;
+            else {
+                // t and its left subtree are all less than x
+                rank += size(t.left) + 1;
+                t = t.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Find the item of rank k, the (k + 1)-th smallest, in O(log n) time.
+     * select(size() - 1 - k) is the (k + 1)-th largest.
+     *
+     * @param k the rank, from 0 to size() - 1.
+     * @return the item with exactly k items less than it.
+     * @throws IndexOutOfBoundsException if k is out of range.
+     */
+    public AnyType select(int k) {
+        if (k < 0 || k >= size())
+            throw new IndexOutOfBoundsException("rank " + k + " out of range for size " + size());
+        AvlNode<AnyType> t = root;
+        while (true) {
+            int leftSize = size(t.left);
+            if (k < leftSize)
+                t = t.left;
+            else if (k > leftSize) {
+                k -= leftSize + 1;
+                t = t.right;
+            } else
+                return t.element;
+        }
+    }
+
+    /**
+     * Count the items x with lo <= x <= hi, in O(log n) time.
+     *
+     * @param lo the smallest item to count.
+     * @param hi the largest item to count.
+     * @return the number of items in the range, or 0 if lo > hi.
+     */
+    public int countInRange(AnyType lo, AnyType hi) {
+        if (lo.compareTo(hi) > 0)
+            return 0;
+        int count = rank(hi) - rank(lo);
+        return contains(hi) ? count + 1 : count;
+    }
+
+    /**
+     * Return the items x with lo <= x <= hi, in ascending order. Only the
+     * subtrees that overlap the range are visited, so this takes O(log n + k)
+     * time for k results.
+     *
+     * @param lo the smallest item to return.
+     * @param hi the largest item to return.
+     * @return the items in the range.
+     */
+    public List<AnyType> rangeQuery(AnyType lo, AnyType hi) {
+        List<AnyType> items = new ArrayList<>();
+        for (Iterator<AnyType> itr = rangeIterator(lo, hi); itr.hasNext(); )
+            items.add(itr.next());
+        return items;
+    }
+
+    /**
+     * Return an iterator over the items x with lo <= x <= hi, in ascending
+     * order. Items are found as they are asked for: creating the iterator
+     * costs O(log n) and each next() is O(1) amortized. The tree must not be
+     * changed while the iterator is in use.
+     *
+     * @param lo the smallest item to return.
+     * @param hi the largest item to return.
+     */
+    public Iterator<AnyType> rangeIterator(AnyType lo, AnyType hi) {
+        return new RangeIterator(lo, hi);
+    }
+
+    /**
+     * Return an iterator over every item, in ascending order. The tree must
+     * not be changed while the iterator is in use.
+     */
+    @Override
+    public Iterator<AnyType> iterator() {
+        return new RangeIterator(null, null);
+    }
+
+    /**
+     * Return a Spliterator over every item, in ascending order. It is SIZED
+     * and SUBSIZED: the subtree sizes give the exact size of both halves of
+     * every split. The tree must not be changed while it is in use.
+     */
+    @Override
+    public Spliterator<AnyType> spliterator() {
+        return new TreeSpliterator(root);
+    }
+
+    /**
+     * Return a sequential stream of the items in ascending order.
+     */
+    public Stream<AnyType> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Return a parallel stream of the items. Each task takes a subtree, so an
+     * aggregation such as the average elevation per country spreads across
+     * cores with no intermediate copy.
+     */
+    public Stream<AnyType> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
     /**
@@ -135,6 +445,7 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
      */
     public void makeEmpty() {
         root = null;
+        pathScratch = null;
     }
 
     /**
@@ -156,8 +467,249 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
             printTree(root);
     }
 
+    /**
+     * Split the tree around x. Afterwards this tree holds the items less
+     * than x and the returned tree holds the items greater than x. x itself
+     * is dropped if it was present. Takes O(log n) time.
+     *
+     * @param x the item to split around.
+     * @return a tree of the items greater than x.
+     */
+    public AvlTree<AnyType> split(AnyType x) {
+        Split<AnyType> s = split(root, x);
+        root = s.left;
+        AvlTree<AnyType> greater = new AvlTree<>();
+        greater.root = s.right;
+        return greater;
+    }
+
+    /**
+     * Join x and the tree greater onto the end of this tree. Every item in
+     * this tree must be less than x, and every item in greater must be
+     * greater than x. greater is left empty. Takes O(log n) time.
+     *
+     * @param x       the item that goes between the two trees.
+     * @param greater the tree of items greater than x.
+     * @throws IllegalArgumentException if the items are not in that order.
+     */
+    public void join(AnyType x, AvlTree<AnyType> greater) {
+        if (!isEmpty() && findMax().compareTo(x) >= 0)
+            throw new IllegalArgumentException("items of this tree must be less than x");
+        if (!greater.isEmpty() && greater.findMin().compareTo(x) <= 0)
+            throw new IllegalArgumentException("items of the other tree must be greater than x");
+        root = join(root, new AvlNode<>(x), greater.root);
+        greater.root = null;
+    }
+
+    /**
+     * Add every item of other to this tree. Where both trees hold an equal
+     * item, this tree's copy is kept. other is left empty.
+     *
+     * @param other the tree to merge in.
+     */
+    public void union(AvlTree<AnyType> other) {
+        root = setOperation(UNION, root, other.root);
+        other.root = null;
+    }
+
+    /**
+     * Keep only the items of this tree that are also in other. other is
+     * left empty.
+     *
+     * @param other the tree to intersect with.
+     */
+    public void intersection(AvlTree<AnyType> other) {
+        root = setOperation(INTERSECTION, root, other.root);
+        other.root = null;
+    }
+
+    /**
+     * Remove every item of other from this tree. other is left empty.
+     *
+     * @param other the tree of items to remove.
+     */
+    public void difference(AvlTree<AnyType> other) {
+        root = setOperation(DIFFERENCE, root, other.root);
+        other.root = null;
+    }
+
     private static final int ALLOWED_IMBALANCE = 1;
 
+    // The set operations run by setOperation
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int DIFFERENCE = 2;
+
+    // Subtrees at least this high are handed to another ForkJoin task
+    private static final int PARALLEL_HEIGHT = 12;
+
+    /**
+     * Internal method to run a set operation on two whole trees, in
+     * parallel on the common ForkJoinPool when they are big enough.
+     */
+    private AvlNode<AnyType> setOperation(int op, AvlNode<AnyType> t1, AvlNode<AnyType> t2) {
+        if (Math.max(height(t1), height(t2)) < PARALLEL_HEIGHT)
+            return setOperation(op, t1, t2, false);
+        return ForkJoinPool.commonPool().invoke(new SetOperationTask(op, t1, t2));
+    }
+
+    /**
+     * Internal method for the join-based union, intersection and difference
+     * of Blelloch, Ferizovic and Sun ("Just Join for Parallel Ordered
+     * Sets"). One tree is split around the other's root, the operation
+     * recurses on the two pairs of halves (in parallel if allowed), and the
+     * results are joined back together. The work is O(m log(n/m + 1)) for
+     * trees of sizes m <= n, and the span is O(log^2 n). Both trees are
+     * taken apart and their nodes reused.
+     *
+     * @param op       UNION, INTERSECTION or DIFFERENCE.
+     * @param t1       the left operand.
+     * @param t2       the right operand.
+     * @param parallel true to fork the left half as a separate task.
+     * @return the root of the result.
+     */
+    private AvlNode<AnyType> setOperation(int op, AvlNode<AnyType> t1, AvlNode<AnyType> t2, boolean parallel) {
+        if (t1 == null)
+            return op == UNION ? t2 : null;
+        if (t2 == null)
+            return op == INTERSECTION ? null : t1;
+
+        // Difference splits t1 around t2's root; the others split t2 around t1's root
+        AvlNode<AnyType> pivot = (op == DIFFERENCE) ? t2 : t1;
+        Split<AnyType> s = split(op == DIFFERENCE ? t1 : t2, pivot.element);
+        AvlNode<AnyType> l1, l2, r1, r2;
+        if (op == DIFFERENCE) {
+            l1 = s.left;
+            r1 = s.right;
+            l2 = t2.left;
+            r2 = t2.right;
+        } else {
+            l1 = t1.left;
+            r1 = t1.right;
+            l2 = s.left;
+            r2 = s.right;
+        }
+
+        AvlNode<AnyType> l, r;
+        if (parallel && Math.max(height(l1), height(l2)) >= PARALLEL_HEIGHT) {
+            SetOperationTask left = new SetOperationTask(op, l1, l2);
+            left.fork();
+            r = setOperation(op, r1, r2, true);
+            l = left.join();
+        } else {
+            l = setOperation(op, l1, l2, parallel);
+            r = setOperation(op, r1, r2, parallel);
+        }
+
+        if (op == UNION || (op == INTERSECTION && s.found != null))
+            return join(l, t1, r);
+        return join2(l, r);
+    }
+
+    /**
+     * Internal method to split a subtree around x.
+     *
+     * @return the items less than x, the node equal to x (or null), and the
+     * items greater than x.
+     */
+    private Split<AnyType> split(AvlNode<AnyType> t, AnyType x) {
+        if (t == null)
+            return new Split<>(null, null, null);
+        AvlNode<AnyType> l = t.left;
+        AvlNode<AnyType> r = t.right;
+        int compareResult = x.compareTo(t.element);
+        if (compareResult == 0)
+            return new Split<>(l, t, r);
+        if (compareResult < 0) {
+            Split<AnyType> s = split(l, x);
+            s.right = join(s.right, t, r);
+            return s;
+        }
+        Split<AnyType> s = split(r, x);
+        s.left = join(l, t, s.left);
+        return s;
+    }
+
+    /**
+     * Internal method to join two subtrees with node k between them. Every
+     * item of l must be less than k's, and every item of r greater.
+     *
+     * @return the root of the joined, balanced subtree.
+     */
+    private AvlNode<AnyType> join(AvlNode<AnyType> l, AvlNode<AnyType> k, AvlNode<AnyType> r) {
+        if (height(l) > height(r) + ALLOWED_IMBALANCE)
+            return joinRight(l, k, r);
+        if (height(r) > height(l) + ALLOWED_IMBALANCE)
+            return joinLeft(l, k, r);
+        k.left = l;
+        k.right = r;
+        k.height = Math.max(height(l), height(r)) + 1;
+        k.size = size(l) + size(r) + 1;
+        return k;
+    }
+
+    /**
+     * Internal method to join when l is the taller subtree: walk down l's
+     * right spine to a subtree about as high as r, hang k there, and
+     * rebalance on the way back up.
+     */
+    private AvlNode<AnyType> joinRight(AvlNode<AnyType> l, AvlNode<AnyType> k, AvlNode<AnyType> r) {
+        if (height(l.right) <= height(r) + ALLOWED_IMBALANCE) {
+            k.left = l.right;
+            k.right = r;
+            k.height = Math.max(height(k.left), height(r)) + 1;
+            k.size = size(k.left) + size(r) + 1;
+            l.right = k;
+        } else {
+            l.right = joinRight(l.right, k, r);
+        }
+        return balance(l);
+    }
+
+    /**
+     * Internal method to join when r is the taller subtree; the mirror
+     * image of joinRight.
+     */
+    private AvlNode<AnyType> joinLeft(AvlNode<AnyType> l, AvlNode<AnyType> k, AvlNode<AnyType> r) {
+        if (height(r.left) <= height(l) + ALLOWED_IMBALANCE) {
+            k.right = r.left;
+            k.left = l;
+            k.height = Math.max(height(l), height(k.right)) + 1;
+            k.size = size(l) + size(k.right) + 1;
+            r.left = k;
+        } else {
+            r.left = joinLeft(l, k, r.left);
+        }
+        return balance(r);
+    }
+
+    /**
+     * Internal method to join two subtrees with nothing between them, by
+     * taking the largest node of l out and using it as the middle node.
+     */
+    private AvlNode<AnyType> join2(AvlNode<AnyType> l, AvlNode<AnyType> r) {
+        if (l == null)
+            return r;
+        if (r == null)
+            return l;
+        Split<AnyType> s = splitLast(l);
+        return join(s.left, s.found, r);
+    }
+
+    /**
+     * Internal method to take the largest node out of a subtree.
+     *
+     * @return the rest of the subtree (as left) and the largest node (as found).
+     */
+    private Split<AnyType> splitLast(AvlNode<AnyType> t) {
+        if (t.right == null)
+            return new Split<>(t.left, t, null);
+        Split<AnyType> s = splitLast(t.right);
+        s.left = join(t.left, t, s.left);
+        return s;
+    }
+
+
     // Assume t is either balanced or within one of being balanced
     private AvlNode<AnyType> balance(AvlNode<AnyType> t) {
         // FINISH ME
@@ -187,8 +739,9 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
                 t = doubleWithRightChild(t);
             }
         }
-        //Update the height of the tree after the tree is balanced.
+        //Update the height and size of the tree after the tree is balanced.
         t.height = Math.max(height(t.left), height(t.right)) + 1;
+        t.size = size(t.left) + size(t.right) + 1;
         return t;
     }
 
@@ -204,7 +757,8 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
             int hl = checkBalance(t.left);
             int hr = checkBalance(t.right);
             if (Math.abs(height(t.left) - height(t.right)) > 1 ||
-                    height(t.left) != hl || height(t.right) != hr)
+                    height(t.left) != hl || height(t.right) != hr ||
+                    t.size != size(t.left) + size(t.right) + 1)
                 System.out.println("OOPS!!");
         }
 
@@ -212,35 +766,6 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
     }
 
 
-    /**
-     * Internal method to insert into a subtree.
-     *
-     * @param x the item to insert.
-     * @param t the node that roots the subtree.
-     * @return the new root of the subtree.
-     */
-    private AvlNode<AnyType> insert(AnyType x, AvlNode<AnyType> t) {
-        // FINISH ME
-        //Check if the node is null.
-        if (t == null) {
-            return new AvlNode<AnyType>(x);
-        }
-        //Calculate the difference between x and the current node.
-        int compareResult = x.compareTo(t.element);
-
-        //Compare the node's value to the key then
-        //Update the left or right nodes. Unless they are equal.
-        //Then we ignore duplicates.
-        if (compareResult < 0) {
-            t.left = insert(x, t.left);
-        } else if (compareResult > 0) {
-            t.right = insert(x, t.right);
-        } else {
-            ;
-        }
-        return balance(t);
-    }
-
     /**
      * Internal method to find the smallest item in a subtree.
      *
@@ -271,31 +796,6 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         return t;
     }
 
-    /**
-     * Internal method to find an item in a subtree.
-     *
-     * @param x is item to search for.
-     * @param t the node that roots the tree.
-     * @return true if x is found in subtree.
-     */
-    private boolean contains(AnyType x, AvlNode<AnyType> t) {
-        // FINISH ME
-        //Check if node is null.
-        if (t == null) {
-            return false;
-        }
-        //If the key is less than the value of the current node, search
-        //the left subtree. Otherwise, if the key is not equal to the node, the right
-        //subtree is searched.
-        if (t.element.compareTo(x) > 0) {
-            return contains(x, t.left);
-        } else if (t.element.compareTo(x) == 0) {
-            //check if the objects are equal, if not continue
-            return true;
-        } else
-            return contains(x, t.right);
-    }
-
     /**
      * Internal method to print a subtree in (sorted) order.
      *
@@ -320,6 +820,13 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         return t == null ? -1 : t.height;
     }
 
+    /**
+     * Return the number of nodes in the subtree t, or 0, if null.
+     */
+    private int size(AvlNode<AnyType> t) {
+        return t == null ? 0 : t.size;
+    }
+
     /**
      * Rotate binary tree node with left child.
      * For AVL trees, this is a single rotation for case 1.
@@ -336,6 +843,9 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         k2.height = Math.max(height(k2.left), height(k2.right)) + 1;
         //The height of k1 is the max of the height of its left subtree and k2's height + 1.
         k1.height = Math.max(height(k1.left), k2.height) + 1;
+        //The sizes are recomputed the same way, k2 first.
+        k2.size = size(k2.left) + size(k2.right) + 1;
+        k1.size = size(k1.left) + k2.size + 1;
         return k1;
     }
 
@@ -355,6 +865,9 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
         k1.height = Math.max(height(k1.right), height(k1.left)) + 1;
         //The height of k2 is the max of the height of its right subtree and k1's height + 1.
         k2.height = Math.max(height(k2.right), k1.height) + 1;
+        //The sizes are recomputed the same way, k1 first.
+        k1.size = size(k1.right) + size(k1.left) + 1;
+        k2.size = size(k2.right) + k1.size + 1;
         return k2;
     }
 
@@ -387,6 +900,187 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
     }
 
 
+    /**
+     * The three parts of a split: the subtree of smaller items, the node
+     * equal to the split item (or null), and the subtree of larger items.
+     */
+    private static class Split<AnyType> {
+        Split(AvlNode<AnyType> lt, AvlNode<AnyType> eq, AvlNode<AnyType> rt) {
+            left = lt;
+            found = eq;
+            right = rt;
+        }
+
+        AvlNode<AnyType> left;
+        AvlNode<AnyType> found;
+        AvlNode<AnyType> right;
+    }
+
+    /**
+     * An in-order walk of the items in [lo, hi]. The stack holds the nodes
+     * whose left subtrees are being visited; subtrees entirely below lo are
+     * never pushed, and the walk stops at the first item above hi. A null
+     * bound leaves that end of the range open.
+     */
+    private class RangeIterator implements Iterator<AnyType> {
+        RangeIterator(AnyType lo, AnyType hi) {
+            this.lo = lo;
+            this.hi = hi;
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi == null || stack.peek().element.compareTo(hi) <= 0);
+        }
+
+        @Override
+        public AnyType next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            AvlNode<AnyType> t = stack.pop();
+            pushLeft(t.right);
+            return t.element;
+        }
+
+        // Push t and its left descendants that are not below lo
+        private void pushLeft(AvlNode<AnyType> t) {
+            while (t != null) {
+                if (lo != null && t.element.compareTo(lo) < 0)
+                    t = t.right;
+                else {
+                    stack.push(t);
+                    t = t.left;
+                }
+            }
+        }
+
+        private final AnyType lo;
+        private final AnyType hi;
+        private final ArrayDeque<AvlNode<AnyType>> stack = new ArrayDeque<>();
+    }
+
+    /**
+     * A Spliterator over an in-order walk. As in RangeIterator, the stack
+     * holds the nodes still to be visited, each followed by its right subtree,
+     * with the largest at the bottom. The nodes above the bottom one are all
+     * in its left subtree, so trySplit hands them off and keeps the bottom
+     * node and its right subtree; from the root that is an even split. With
+     * one node left, it hands off that node alone and keeps its right
+     * subtree, which splits evenly again. remaining is always exact.
+     */
+    private class TreeSpliterator implements Spliterator<AnyType> {
+        TreeSpliterator(AvlNode<AnyType> t) {
+            pushLeft(t);
+            remaining = size(t);
+        }
+
+        // Used by trySplit, which fills in the stack and remaining
+        private TreeSpliterator() {
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AnyType> action) {
+            if (stack.isEmpty())
+                return false;
+            action.accept(visit());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super AnyType> action) {
+            while (!stack.isEmpty())
+                action.accept(visit());
+        }
+
+        @Override
+        public Spliterator<AnyType> trySplit() {
+            if (stack.isEmpty())
+                return null;
+            AvlNode<AnyType> bottom = stack.peekLast();
+            TreeSpliterator prefix = new TreeSpliterator();
+            if (stack.size() > 1) {
+                // Hand off the rest of the bottom node's left subtree
+                while (stack.size() > 1)
+                    prefix.stack.addLast(stack.pollFirst());
+                int kept = 1 + (bottom == last ? 0 : size(bottom.right));
+                prefix.remaining = remaining - kept;
+                remaining = kept;
+            } else if (bottom != last && bottom.right != null) {
+                // Hand off the bottom node alone and keep its right subtree
+                stack.pop();
+                prefix.stack.push(bottom);
+                prefix.last = bottom;
+                prefix.remaining = 1;
+                pushLeft(bottom.right);
+                remaining--;
+            } else {
+                return null;
+            }
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+
+        // SORTED with a null comparator means natural ordering
+        @Override
+        public java.util.Comparator<? super AnyType> getComparator() {
+            return null;
+        }
+
+        // Pop the next node, queue its right subtree, and return its item
+        private AnyType visit() {
+            AvlNode<AnyType> t = stack.pop();
+            if (t != last)
+                pushLeft(t.right);
+            remaining--;
+            return t.element;
+        }
+
+        // Push t and its left descendants
+        private void pushLeft(AvlNode<AnyType> t) {
+            while (t != null) {
+                stack.push(t);
+                t = t.left;
+            }
+        }
+
+        private final ArrayDeque<AvlNode<AnyType>> stack = new ArrayDeque<>();
+        // A node whose right subtree is not part of this Spliterator, or null
+        private AvlNode<AnyType> last;
+        private int remaining;
+    }
+
+    /**
+     * A ForkJoin task that runs setOperation on a pair of subtrees.
+     */
+    private class SetOperationTask extends RecursiveTask<AvlNode<AnyType>> {
+        SetOperationTask(int op, AvlNode<AnyType> t1, AvlNode<AnyType> t2) {
+            this.op = op;
+            this.t1 = t1;
+            this.t2 = t2;
+        }
+
+        @Override
+        protected AvlNode<AnyType> compute() {
+            return setOperation(op, t1, t2, true);
+        }
+
+        private static final long serialVersionUID = 1L;
+
+        private final int op;
+        private final AvlNode<AnyType> t1;
+        private final AvlNode<AnyType> t2;
+    }
+
     private static class AvlNode<AnyType> {
         // Constructors
         AvlNode(AnyType theElement) {
@@ -398,17 +1092,24 @@ public class AvlTree<AnyType extends Comparable<? super AnyType>> {
             left = lt;
             right = rt;
             height = 0;
+            size = 1;
         }
 
         AnyType element;      // The data in the node
         AvlNode<AnyType> left;         // Left child
         AvlNode<AnyType> right;        // Right child
         int height;       // Height
+        int size;         // Number of nodes in this subtree
     }
 
     /**
      * The tree root.
      */
     private AvlNode<AnyType> root;
+
+    /**
+     * The path scratch space shared by insert and remove; see scratchPath.
+     */
+    private AvlNode<AnyType>[] pathScratch;
 }
 
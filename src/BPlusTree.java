@@ -0,0 +1,626 @@
+/**********************************************************************
+ * @file BPlusTree.java
+ * @brief This program implements the BPlusTree class, an ordered index
+ * with the same operations as AvlTree that keeps many keys per node. Each
+ * node stores its keys in one contiguous array, so a lookup reads a few
+ * cache lines per level instead of one pointer per level, and with the
+ * default fanout of 64 a tree of ten million items is only four or five
+ * levels deep where an AVL tree is over twenty. All items live in the
+ * leaves, which are linked left to right, so iteration and range scans
+ * walk the leaves without going back up the tree.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+// BPlusTree class
+//
+// CONSTRUCTION: with no initializer, or with the fanout
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// Comparable remove( x ) --> Remove x; return the removed item, or null
+// boolean contains( x )  --> Return true if x is present
+// Comparable search( x ) --> Return the item equal to x, or null
+// Comparable findMin( )  --> Return smallest item
+// Comparable findMax( )  --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// int size( )            --> Return the number of items
+// int height( )          --> Return the number of levels below the root
+// void printTree( )      --> Print tree in sorted order
+// Iterator iterator( )   --> Iterate over every item in sorted order
+// Iterator rangeIterator( lo, hi ) --> Iterate over items in [lo, hi]
+// ******************ERRORS********************************
+// Throws UnderflowException as appropriate
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implements a B+ tree. Internal nodes hold only separator keys; every
+ * item is in a leaf, and the leaves form a sorted linked list.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public class BPlusTree<AnyType extends Comparable<? super AnyType>> implements SortedIndex<AnyType>, Iterable<AnyType> {
+
+    /**
+     * The fanout used by the no-argument constructor. 64 references fill a
+     * few cache lines and keep the tree shallow.
+     */
+    public static final int DEFAULT_FANOUT = 64;
+
+    /**
+     * Construct the tree with the default fanout.
+     */
+    public BPlusTree() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * Construct the tree.
+     *
+     * @param fanout the most children an internal node may have; a node
+     *               holds at most fanout - 1 keys.
+     * @throws IllegalArgumentException if fanout is less than 4.
+     */
+    public BPlusTree(int fanout) {
+        if (fanout < 4)
+            throw new IllegalArgumentException("fanout must be at least 4: " + fanout);
+        maxKeys = fanout - 1;
+        minKeys = maxKeys / 2;
+        makeEmpty();
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        Node sibling = insert(x, root);
+        if (sibling != null) {
+            //The root split: grow the tree by one level.
+            Internal newRoot = new Internal(maxKeys);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.n = 1;
+            root = newRoot;
+            height++;
+        }
+        splitKey = null;
+    }
+
+    /**
+     * Remove from the tree.
+     *
+     * @param x the item to remove.
+     * @return the item that was removed, or null if x was not found.
+     */
+    public AnyType remove(AnyType x) {
+        AnyType removed = remove(x, root);
+        if (root instanceof Internal && root.n == 0) {
+            //The root's last two children merged: shrink the tree by one level.
+            root = ((Internal) root).children[0];
+            height--;
+        }
+        return removed;
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return smallest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMin() {
+        if (isEmpty())
+            throw new UnderflowException();
+        return element(firstLeaf().keys, 0);
+    }
+
+    /**
+     * Find the largest item in the tree.
+     *
+     * @return the largest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMax() {
+        if (isEmpty())
+            throw new UnderflowException();
+        Node t = root;
+        while (t instanceof Internal)
+            t = ((Internal) t).children[t.n];
+        return element(t.keys, t.n - 1);
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains(AnyType x) {
+        return search(x) != null;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return the matching item in the tree, or null if x is not found.
+     */
+    public AnyType search(AnyType x) {
+        Leaf leaf = findLeaf(x);
+        int i = lowerBound(leaf.keys, leaf.n, x);
+        if (i < leaf.n && x.compareTo(element(leaf.keys, i)) == 0)
+            return element(leaf.keys, i);
+        return null;
+    }
+
+    /**
+     * Make the tree logically empty.
+     */
+    public void makeEmpty() {
+        root = new Leaf(maxKeys);
+        size = 0;
+        height = 0;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the number of levels below the root; 0 if the root is a leaf.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree() {
+        if (isEmpty())
+            System.out.println("Empty tree");
+        else
+            for (AnyType x : this)
+                System.out.println(x);
+    }
+
+    /**
+     * Return an iterator over every item in ascending order. The tree must
+     * not be changed while the iterator is in use.
+     */
+    @Override
+    public Iterator<AnyType> iterator() {
+        return new LeafIterator(firstLeaf(), 0, null);
+    }
+
+    /**
+     * Return an iterator over the items x with lo <= x <= hi, in ascending
+     * order. It descends to lo once and then follows the leaf links, so a
+     * scan of k items costs one search plus O(k). The tree must not be
+     * changed while the iterator is in use.
+     *
+     * @param lo the smallest item to return.
+     * @param hi the largest item to return.
+     */
+    public Iterator<AnyType> rangeIterator(AnyType lo, AnyType hi) {
+        Leaf leaf = findLeaf(lo);
+        return new LeafIterator(leaf, lowerBound(leaf.keys, leaf.n, lo), hi);
+    }
+
+    /**
+     * Check the B+ tree invariants, printing "OOPS!!" if any fails: keys are
+     * sorted and within their separators, every node but the root is at
+     * least half full, every leaf is at the same depth, and the leaf links
+     * visit every item.
+     */
+    public void checkBalance() {
+        int count = checkBalance(root, null, null, 0);
+        int linked = 0;
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next)
+            linked += leaf.n;
+        if (count != size || linked != size)
+            System.out.println("OOPS!!");
+    }
+
+    /**
+     * Internal method to insert into a subtree.
+     *
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the new right sibling of t if t split, or null. The separator
+     * for the new sibling is left in splitKey.
+     */
+    private Node insert(AnyType x, Node t) {
+        if (t instanceof Leaf) {
+            Leaf leaf = (Leaf) t;
+            int i = lowerBound(leaf.keys, leaf.n, x);
+            if (i < leaf.n && x.compareTo(element(leaf.keys, i)) == 0)
+                return null;  // Duplicate; do nothing
+            insertAt(leaf.keys, leaf.n, i, x);
+            leaf.n++;
+            size++;
+            return leaf.n > maxKeys ? splitLeaf(leaf) : null;
+        }
+
+        Internal node = (Internal) t;
+        int c = upperBound(node.keys, node.n, x);
+        Node sibling = insert(x, node.children[c]);
+        if (sibling == null)
+            return null;
+        insertAt(node.keys, node.n, c, splitKey);
+        insertAt(node.children, node.n + 1, c + 1, sibling);
+        node.n++;
+        return node.n > maxKeys ? splitInternal(node) : null;
+    }
+
+    /**
+     * Internal method to remove from a subtree. A child left with fewer than
+     * minKeys keys borrows a key from a sibling or merges with it.
+     *
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return the item that was removed, or null if x was not found.
+     */
+    private AnyType remove(AnyType x, Node t) {
+        if (t instanceof Leaf) {
+            Leaf leaf = (Leaf) t;
+            int i = lowerBound(leaf.keys, leaf.n, x);
+            if (i == leaf.n || x.compareTo(element(leaf.keys, i)) != 0)
+                return null;   // Item not found; do nothing
+            AnyType removed = element(leaf.keys, i);
+            removeAt(leaf.keys, leaf.n, i);
+            leaf.n--;
+            size--;
+            return removed;
+        }
+
+        Internal node = (Internal) t;
+        int c = upperBound(node.keys, node.n, x);
+        AnyType removed = remove(x, node.children[c]);
+        if (removed != null && node.children[c].n < minKeys)
+            rebalance(node, c);
+        return removed;
+    }
+
+    /**
+     * Internal method to fix child c of node after it lost a key, by
+     * borrowing from a sibling that can spare one or else merging it with
+     * a sibling.
+     */
+    private void rebalance(Internal node, int c) {
+        Node child = node.children[c];
+        Node left = c > 0 ? node.children[c - 1] : null;
+        Node right = c < node.n ? node.children[c + 1] : null;
+        if (left != null && left.n > minKeys)
+            borrowFromLeft(node, c);
+        else if (right != null && right.n > minKeys)
+            borrowFromRight(node, c);
+        else if (left != null)
+            merge(node, c - 1);
+        else
+            merge(node, c);
+    }
+
+    /**
+     * Internal method to move the last key of child c - 1 into child c.
+     */
+    private void borrowFromLeft(Internal node, int c) {
+        Node child = node.children[c];
+        Node left = node.children[c - 1];
+        if (child instanceof Leaf) {
+            insertAt(child.keys, child.n, 0, left.keys[left.n - 1]);
+            node.keys[c - 1] = child.keys[0];
+        } else {
+            //The separator comes down and the left sibling's last key goes up.
+            Internal in = (Internal) child;
+            Internal l = (Internal) left;
+            insertAt(in.keys, in.n, 0, node.keys[c - 1]);
+            insertAt(in.children, in.n + 1, 0, l.children[l.n]);
+            node.keys[c - 1] = l.keys[l.n - 1];
+            l.children[l.n] = null;
+        }
+        left.keys[left.n - 1] = null;
+        left.n--;
+        child.n++;
+    }
+
+    /**
+     * Internal method to move the first key of child c + 1 into child c.
+     */
+    private void borrowFromRight(Internal node, int c) {
+        Node child = node.children[c];
+        Node right = node.children[c + 1];
+        if (child instanceof Leaf) {
+            child.keys[child.n] = right.keys[0];
+            removeAt(right.keys, right.n, 0);
+            node.keys[c] = right.keys[0];
+        } else {
+            //The separator comes down and the right sibling's first key goes up.
+            Internal in = (Internal) child;
+            Internal r = (Internal) right;
+            in.keys[in.n] = node.keys[c];
+            in.children[in.n + 1] = r.children[0];
+            node.keys[c] = r.keys[0];
+            removeAt(r.keys, r.n, 0);
+            removeAt(r.children, r.n + 1, 0);
+        }
+        right.n--;
+        child.n++;
+    }
+
+    /**
+     * Internal method to merge child c + 1 into child c and drop the
+     * separator between them.
+     */
+    private void merge(Internal node, int c) {
+        Node left = node.children[c];
+        Node right = node.children[c + 1];
+        if (left instanceof Leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.n, right.n);
+            left.n += right.n;
+            ((Leaf) left).next = ((Leaf) right).next;
+        } else {
+            Internal l = (Internal) left;
+            Internal r = (Internal) right;
+            l.keys[l.n] = node.keys[c];
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+        removeAt(node.keys, node.n, c);
+        removeAt(node.children, node.n + 1, c + 1);
+        node.n--;
+    }
+
+    /**
+     * Internal method to move the upper half of an overfull leaf into a new
+     * leaf linked after it.
+     */
+    private Leaf splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(maxKeys);
+        int mid = leaf.n / 2;
+        right.n = leaf.n - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.n);
+        Arrays.fill(leaf.keys, mid, leaf.n, null);
+        leaf.n = mid;
+        right.next = leaf.next;
+        leaf.next = right;
+        splitKey = element(right.keys, 0);
+        return right;
+    }
+
+    /**
+     * Internal method to move the upper half of an overfull internal node
+     * into a new node. The middle key moves up as the separator.
+     */
+    private Internal splitInternal(Internal node) {
+        Internal right = new Internal(maxKeys);
+        int mid = node.n / 2;
+        right.n = node.n - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, right.n);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.n + 1);
+        splitKey = element(node.keys, mid);
+        Arrays.fill(node.keys, mid, node.n, null);
+        Arrays.fill(node.children, mid + 1, node.n + 1, null);
+        node.n = mid;
+        return right;
+    }
+
+    /**
+     * Internal method to find the leaf where x is or would be.
+     */
+    private Leaf findLeaf(AnyType x) {
+        Node t = root;
+        while (t instanceof Internal)
+            t = ((Internal) t).children[upperBound(t.keys, t.n, x)];
+        return (Leaf) t;
+    }
+
+    /**
+     * Internal method to find the leftmost leaf.
+     */
+    private Leaf firstLeaf() {
+        Node t = root;
+        while (t instanceof Internal)
+            t = ((Internal) t).children[0];
+        return (Leaf) t;
+    }
+
+    /**
+     * Return the index of the first of the n keys that is not less than x.
+     */
+    private static <AnyType extends Comparable<? super AnyType>> int lowerBound(Object[] keys, int n, AnyType x) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (BPlusTree.<AnyType>element(keys, mid).compareTo(x) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Return the index of the first of the n keys that is greater than x,
+     * which is also the child of an internal node to descend into for x.
+     */
+    private static <AnyType extends Comparable<? super AnyType>> int upperBound(Object[] keys, int n, AnyType x) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (BPlusTree.<AnyType>element(keys, mid).compareTo(x) <= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Shift a[i..n) right by one and store x at a[i].
+     */
+    private static void insertAt(Object[] a, int n, int i, Object x) {
+        System.arraycopy(a, i, a, i + 1, n - i);
+        a[i] = x;
+    }
+
+    /**
+     * Shift a[i+1..n) left by one, overwriting a[i], and clear a[n-1].
+     */
+    private static void removeAt(Object[] a, int n, int i) {
+        System.arraycopy(a, i + 1, a, i, n - i - 1);
+        a[n - 1] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <AnyType> AnyType element(Object[] keys, int i) {
+        return (AnyType) keys[i];
+    }
+
+    /**
+     * Internal method to check a subtree whose keys must lie in [lo, hi).
+     *
+     * @return the number of items in the subtree.
+     */
+    private int checkBalance(Node t, AnyType lo, AnyType hi, int depth) {
+        if (t != root && t.n < minKeys)
+            System.out.println("OOPS!!");
+        for (int i = 0; i < t.n; i++) {
+            AnyType k = element(t.keys, i);
+            if ((i > 0 && BPlusTree.<AnyType>element(t.keys, i - 1).compareTo(k) >= 0)
+                    || (lo != null && k.compareTo(lo) < 0) || (hi != null && k.compareTo(hi) >= 0))
+                System.out.println("OOPS!!");
+        }
+        if (t instanceof Leaf) {
+            if (depth != height)
+                System.out.println("OOPS!!");
+            return t.n;
+        }
+        Internal node = (Internal) t;
+        int count = 0;
+        for (int i = 0; i <= node.n; i++) {
+            AnyType childLo = i == 0 ? lo : element(node.keys, i - 1);
+            AnyType childHi = i == node.n ? hi : element(node.keys, i);
+            count += checkBalance(node.children[i], childLo, childHi, depth + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Walks the leaf list from a starting position, stopping after hi.
+     */
+    private class LeafIterator implements Iterator<AnyType> {
+        private Leaf leaf;   // The leaf holding the next item, or null
+        private int i;       // The index of the next item in leaf
+        private final AnyType hi;  // The last item to return, or null for no bound
+
+        LeafIterator(Leaf leaf, int i, AnyType hi) {
+            this.leaf = leaf;
+            this.i = i;
+            this.hi = hi;
+            skipEmpty();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null && (hi == null || BPlusTree.<AnyType>element(leaf.keys, i).compareTo(hi) <= 0);
+        }
+
+        @Override
+        public AnyType next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            AnyType x = element(leaf.keys, i++);
+            skipEmpty();
+            return x;
+        }
+
+        //Move to the next leaf once this one is used up.
+        private void skipEmpty() {
+            while (leaf != null && i == leaf.n) {
+                leaf = leaf.next;
+                i = 0;
+            }
+        }
+    }
+
+    /**
+     * A node holds up to maxKeys keys in keys[0..n). The arrays have one
+     * spare slot so a node can overflow by one key before it splits.
+     */
+    private static abstract class Node {
+        final Object[] keys;  // The keys, in ascending order
+        int n;                // The number of keys
+
+        Node(int maxKeys) {
+            keys = new Object[maxKeys + 1];
+        }
+    }
+
+    /**
+     * A leaf holds items and links to the next leaf.
+     */
+    private static final class Leaf extends Node {
+        Leaf next;  // The leaf to the right, or null
+
+        Leaf(int maxKeys) {
+            super(maxKeys);
+        }
+    }
+
+    /**
+     * An internal node with n keys has n + 1 children. Every item in
+     * children[i] is at least keys[i - 1] and less than keys[i].
+     */
+    private static final class Internal extends Node {
+        final Node[] children;
+
+        Internal(int maxKeys) {
+            super(maxKeys);
+            children = new Node[maxKeys + 2];
+        }
+    }
+
+    /**
+     * The most and fewest keys a node other than the root may hold.
+     */
+    private final int maxKeys;
+    private final int minKeys;
+
+    /**
+     * The tree root.
+     */
+    private Node root;
+
+    /**
+     * The number of items and the number of levels below the root.
+     */
+    private int size;
+    private int height;
+
+    /**
+     * The separator for the sibling created by the last split.
+     */
+    private AnyType splitKey;
+}
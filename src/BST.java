@@ -2,22 +2,98 @@
  * @file BST.java
  * @brief This program implements the BST and BSTIterator classes. BST contains
  * methods that can make changes to a binary search tree. The iterator class
- * traverses the tree.
+ * traverses the tree, and a BST is Iterable, so it works in for-each loops.
+ * stream() and parallelStream() use a Spliterator that splits the tree
+ * into subtrees, one per task. A BST made with treap() is a randomized treap: each
+ * node also gets a random priority, and rotations keep every parent's
+ * priority above its children's, so the tree has the shape it would have
+ * had if the elements were inserted in random order and is expected
+ * O(log N) deep even when they arrive sorted.
  * @author Wynne Greene
  * @date: October 24, 2024
  ***********************************************************************/
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class BST<T extends Comparable<T>> {
+public class BST<T extends Comparable<T>> implements SortedIndex<T>, Iterable<T> {
     //The root is a node of a generic type.
     private Node<T> root;
     //countN is the number of nodes.
     private int countN;
+    //rand draws node priorities in treap mode, and is null otherwise.
+    private final Random rand;
 
     //The constructor sets default values to the root and countN.
     public BST() {
+        this(null);
+    }
+
+    //This constructor makes a treap if rand is not null.
+    private BST(Random rand) {
         root = null;
         countN = 0;
+        this.rand = rand;
+    }
+
+    //This method makes an empty BST in treap mode. It has the same methods and
+    //iterator as a plain BST, but its depth does not depend on insertion order.
+    public static <T extends Comparable<T>> BST<T> treap() {
+        return new BST<T>(new Random());
+    }
+
+    //This method makes an empty treap whose priorities come from a fixed seed,
+    //so the same inserts always build the same tree.
+    public static <T extends Comparable<T>> BST<T> treap(long seed) {
+        return new BST<T>(new Random(seed));
+    }
+
+    //This method checks if the tree is in treap mode.
+    public boolean isTreap() {
+        return rand != null;
+    }
+
+    //This method builds a perfectly balanced BST from a list that is already in
+    //ascending order, in linear time. The middle element of each range becomes
+    //the root of its subtree, so the tree is about log2(N) deep instead of the
+    //N-deep list that inserting sorted elements one by one produces.
+    public static <T extends Comparable<T>> BST<T> buildFromSorted(List<T> sorted) {
+        //Copy to an array so the halves can be indexed in constant time.
+        Object[] items = sorted.toArray();
+        for(int i = 1; i < items.length; i++) {
+            if(BST.<T>element(items, i - 1).compareTo(element(items, i)) > 0)
+                throw new IllegalArgumentException("list is not sorted at index " + i);
+        }
+        BST<T> tree = new BST<>();
+        tree.root = buildHelp(items, 0, items.length);
+        tree.countN = items.length;
+        return tree;
+    }
+
+    //This method is called by buildFromSorted() to build the subtree for items[lo, hi).
+    //mid is always the exact middle, so a run of equal elements is split across
+    //both subtrees of the node that holds one of them, unlike insert(), which
+    //puts them to the right. search(), remove() and the in-order walks do not
+    //depend on which side they are on, and a list of all-equal elements still
+    //builds a tree about log2(N) deep.
+    private static <T extends Comparable<T>> Node<T> buildHelp(Object[] items, int lo, int hi) {
+        if(lo >= hi)
+            return null;
+        int mid = (lo + hi) >>> 1;
+        return new Node<T>(element(items, mid), buildHelp(items, mid + 1, hi), buildHelp(items, lo, mid));
+    }
+
+    //This method returns items[i] as a T.
+    @SuppressWarnings("unchecked")
+    private static <T> T element(Object[] items, int i) {
+        return (T) items[i];
     }
 
     //Remove elements of the BST by making the root to null.
@@ -27,82 +103,247 @@ public class BST<T extends Comparable<T>> {
         countN = 0;
     }
 
+    //makeEmpty is the SortedIndex name for clear().
+    public void makeEmpty() {
+        clear();
+    }
+
+    //This method checks if the tree has no nodes.
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    //This method returns the smallest element, the leftmost node.
+    public T findMin() {
+        if(root == null)
+            throw new UnderflowException();
+        return successor(root).getElement();
+    }
+
+    //This method returns the largest element, the rightmost node.
+    public T findMax() {
+        if(root == null)
+            throw new UnderflowException();
+        Node<T> curr = root;
+        while(curr.getRight()!=null)
+            curr = curr.getRight();
+        return curr.getElement();
+    }
+
     //countN keeps track of the number of nodes in the tree.
     public int size() {
         return countN;
     }
 
+    //This method returns the number of edges on the longest path from the root
+    //to a leaf, or -1 if the tree is empty. It keeps its own stack, since a
+    //plain BST built from sorted input is a path N nodes long.
+    public int height() {
+        int height = -1;
+        //depths[i] is the depth of the node i places from the bottom of nodes.
+        ArrayDeque<Node<T>> nodes = new ArrayDeque<Node<T>>();
+        int[] depths = new int[16];
+        if(root != null) {
+            nodes.push(root);
+            depths[0] = 0;
+        }
+        while(!nodes.isEmpty()) {
+            Node<T> curr = nodes.pop();
+            int depth = depths[nodes.size()];
+            height = Math.max(height, depth);
+            //At most two nodes are pushed, so make room for them first.
+            if(nodes.size() + 2 > depths.length)
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            if(curr.getLeft()!=null) {
+                depths[nodes.size()] = depth + 1;
+                nodes.push(curr.getLeft());
+            }
+            if(curr.getRight()!=null) {
+                depths[nodes.size()] = depth + 1;
+                nodes.push(curr.getRight());
+            }
+        }
+        return height;
+    }
+
     //The insert method inserts value passed in as a parameter.
     public void insert(T value) {
         //root is updated with the new node.
-        root = insertHelp(root, value);
+        root = (rand != null) ? treapInsertHelp(root, value) : insertHelp(root, value);
         //countN is updated to reflect the new node.
         countN++;
     }
 
-    //This method is called by the insert method to recursively insert a value.
+    //This method is called by the insert method to insert a value. It walks down
+    //the tree in a loop instead of recursing, so a tree built from sorted input
+    //(which is a linked list) does not need one stack frame per level.
     private Node<T> insertHelp(Node<T> r, T key) {
         //Check if the node is null.
         if(r==null || r.getElement()==null) {
             return new Node<T>(key);
         }
 
-        //Compare the node's value to the key then
-        //Update the left or right nodes.
-        if(r.getElement().compareTo(key) > 0) {
-            r.setLeft(insertHelp(r.getLeft(), key));
+        //Compare the node's value to the key then move to the left or right
+        //node until an empty spot is found.
+        Node<T> curr = r;
+        while(true) {
+            if(curr.getElement().compareTo(key) > 0) {
+                if(curr.getLeft()==null || curr.getLeft().getElement()==null) {
+                    curr.setLeft(new Node<T>(key));
+                    return r;
+                }
+                curr = curr.getLeft();
+            }
+            else {
+                if(curr.getRight()==null || curr.getRight().getElement()==null) {
+                    curr.setRight(new Node<T>(key));
+                    return r;
+                }
+                curr = curr.getRight();
+            }
         }
-        else {
-            r.setRight(insertHelp(r.getRight(), key));
+    }
+
+    //This method is called by insert() in treap mode. The new node gets a random
+    //priority and goes in as a leaf, the same place insertHelp would put it, then
+    //rotates up while its priority is higher than its parent's.
+    private Node<T> treapInsertHelp(Node<T> r, T key) {
+        Node<T> node = new Node<T>(key);
+        node.setPriority(rand.nextInt());
+        if(r==null) {
+            return node;
         }
+
+        //path holds the ancestors of the new node, root first.
+        ArrayDeque<Node<T>> path = new ArrayDeque<Node<T>>();
+        Node<T> curr = r;
+        while(true) {
+            path.push(curr);
+            if(curr.getElement().compareTo(key) > 0) {
+                if(curr.getLeft()==null) {
+                    curr.setLeft(node);
+                    break;
+                }
+                curr = curr.getLeft();
+            }
+            else {
+                if(curr.getRight()==null) {
+                    curr.setRight(node);
+                    break;
+                }
+                curr = curr.getRight();
+            }
+        }
+
+        //Rotate the node above each parent with a lower priority.
+        while(!path.isEmpty() && path.peek().getPriority() < node.getPriority()) {
+            Node<T> parent = path.pop();
+            if(parent.getLeft()==node)
+                rotateRight(parent);
+            else
+                rotateLeft(parent);
+            if(path.isEmpty())
+                r = node;
+            else if(path.peek().getLeft()==parent)
+                path.peek().setLeft(node);
+            else
+                path.peek().setRight(node);
+        }
+        return r;
+    }
+
+    //This method rotates p's left child up into p's place and returns it. The
+    //caller links the returned node to p's old parent.
+    private Node<T> rotateRight(Node<T> p) {
+        Node<T> l = p.getLeft();
+        p.setLeft(l.getRight());
+        l.setRight(p);
+        return l;
+    }
+
+    //This method rotates p's right child up into p's place and returns it.
+    private Node<T> rotateLeft(Node<T> p) {
+        Node<T> r = p.getRight();
+        p.setRight(r.getLeft());
+        r.setLeft(p);
         return r;
     }
 
+    //This method puts child in old's place under parent, or at the root if
+    //parent is null.
+    private void replaceChild(Node<T> parent, Node<T> old, Node<T> child) {
+        if(parent==null)
+            root = child;
+        else if(parent.getLeft()==old)
+            parent.setLeft(child);
+        else
+            parent.setRight(child);
+    }
+
     //This method removes a node from the tree.
     public T remove(T key) {
-        //Find the key with findHelp()
-        T temp = searchHelp(root, key);
-        //Remove the key if it is found in the tree.
+        //Find and unlink the key in a single pass down the tree.
+        T temp = removeHelp(key);
+        //Update countN if the key was found in the tree.
         if(temp != null) {
-            root = removeHelp(root, key);
-            //Update countN.
             countN--;
         }
         return temp;
     }
 
-    //This method is called by remove() to recursively remove the key.
-    private Node<T> removeHelp(Node<T> nodeVal, T key) {
-        if(nodeVal==null)
-            return null;
+    //This method is called by remove() to remove the key without recursion.
+    //It returns the element that was removed, or null if the key was not found.
+    private T removeHelp(T key) {
+        //parent follows one step behind nodeVal so the removed node can be unlinked.
+        Node<T> parent = null;
+        Node<T> nodeVal = root;
         //Compare the key with the current node. If its value is less than the current
         //Node, it should be in the node's left subtree. Otherwise, it goes in the right.
-        if(nodeVal.getElement().compareTo(key)>0) {
-            nodeVal.setLeft(removeHelp(nodeVal.getLeft(), key));
-        }
-        else if(nodeVal.getElement().compareTo(key)<0) {
-            nodeVal.setRight(removeHelp(nodeVal.getRight(), key));
+        while(nodeVal!=null) {
+            int cmp = nodeVal.getElement().compareTo(key);
+            if(cmp==0)
+                break;
+            parent = nodeVal;
+            nodeVal = (cmp>0) ? nodeVal.getLeft() : nodeVal.getRight();
         }
-        else {
-            //After finding the key, remove it.
-            //Check for a leaf node.
-            if(nodeVal.getLeft() == null && nodeVal.getRight() == null ) {
-                return null;
+        if(nodeVal==null)
+            return null;
+
+        //After finding the key, remove it.
+        T found = nodeVal.getElement();
+        if(nodeVal.getLeft()!=null && nodeVal.getRight()!=null && rand!=null) {
+            //In treap mode, rotate the node down below whichever child has the
+            //higher priority until it has at most one child, so the priorities
+            //stay in heap order. It is then unlinked below.
+            while(nodeVal.getLeft()!=null && nodeVal.getRight()!=null) {
+                Node<T> up = (nodeVal.getLeft().getPriority() > nodeVal.getRight().getPriority())
+                        ? rotateRight(nodeVal) : rotateLeft(nodeVal);
+                replaceChild(parent, nodeVal, up);
+                parent = up;
             }
-            //Check for if the node has one child.
-            if(nodeVal.getLeft()==null)
-                return nodeVal.getRight();
-            else if(nodeVal.getRight()==null)
-                return nodeVal.getLeft();
-            else {
-                //The node has two children. Replace the node's data with
-                //the smallest data in the right subtree and delete the node.
-                Node<T> temp = successor(nodeVal.getRight());
-                nodeVal.setElement(temp.getElement());
-                nodeVal.setRight(removeHelp(nodeVal.getRight(), temp.getElement()));
+        }
+        else if(nodeVal.getLeft()!=null && nodeVal.getRight()!=null) {
+            //The node has two children. Replace the node's data with
+            //the smallest data in the right subtree and unlink that node,
+            //which has no left child.
+            Node<T> succParent = nodeVal;
+            Node<T> succ = nodeVal.getRight();
+            while(succ.getLeft()!=null) {
+                succParent = succ;
+                succ = succ.getLeft();
             }
+            nodeVal.setElement(succ.getElement());
+            if(succParent==nodeVal)
+                succParent.setRight(succ.getRight());
+            else
+                succParent.setLeft(succ.getRight());
+            return found;
         }
-        return nodeVal;
+
+        //The node is a leaf or has one child, so its child takes its place.
+        Node<T> child = (nodeVal.getLeft()!=null) ? nodeVal.getLeft() : nodeVal.getRight();
+        replaceChild(parent, nodeVal, child);
+        return found;
     }
 
     //This method finds the node with the smallest data in the right subtree.
@@ -117,53 +358,143 @@ public class BST<T extends Comparable<T>> {
         return searchHelp(root, key);
     }
 
-    //This method is called by search() to find the key.
+    //This method is called by search() to find the key. It loops down the
+    //tree instead of recursing.
     private T searchHelp(Node<T> nodeVal, T key) {
-        if(nodeVal==null){ //|| nodeVal.getElement() == null) {
-            return null;
-        }
         //If the key is less than the value of the current node, search
         //the left subtree. Otherwise, if the key is not equal to the node, the right
         //subtree is searched.
-        if(nodeVal.getElement().compareTo(key)>0) {
-            return searchHelp(nodeVal.getLeft(), key);
+        while(nodeVal!=null) {
+            int cmp = nodeVal.getElement().compareTo(key);
+            if(cmp>0)
+                nodeVal = nodeVal.getLeft();
+            else if(cmp==0)
+                return nodeVal.getElement();
+            else
+                nodeVal = nodeVal.getRight();
         }
-        else if(nodeVal.getElement().compareTo(key)==0) {
-            //check if the objects are equal, if not continue
-            return nodeVal.getElement();
+        return null;
+    }
+
+    //This method returns the elements from lo to hi, inclusive, in order. It only
+    //visits the subtrees that overlap the range. A null lo or hi leaves that end
+    //of the range open.
+    public List<T> rangeQuery(T lo, T hi) {
+        List<T> items = new ArrayList<T>();
+        java.util.Iterator<T> itr = rangeIterator(lo, hi);
+        while(itr.hasNext()) {
+            items.add(itr.next());
         }
-        else
-            return searchHelp(nodeVal.getRight(), key);
+        return items;
+    }
+
+    //This method returns an iterator over the elements from lo to hi, inclusive,
+    //in order. Elements are found as next() asks for them, so stopping early
+    //costs nothing. (This is java.util.Iterator, not the Iterator interface
+    //below.) A null lo or hi leaves that end of the range open. The tree must
+    //not be changed while the iterator is in use.
+    public java.util.Iterator<T> rangeIterator(T lo, T hi) {
+        return new RangeIterator(lo, hi);
+    }
+
+    //This is the iterator method that returns the elements of the tree in order.
+    //The tree must not be changed while the iterator is in use.
+    public java.util.Iterator<T> iterator() {
+        return new BSTIterator(root);
+    }
+
+    //This method returns a Spliterator over the elements in order. It splits by
+    //handing off the left subtree of the walk, so a balanced tree splits in half.
+    @Override
+    public Spliterator<T> spliterator() {
+        return new BSTSpliterator(root, countN);
+    }
+
+    //This method returns a sequential stream of the elements in order.
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    //This method returns a parallel stream of the elements, split by subtree.
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
-    //This is the iterator method that return the contents of the tree.
-    public String iterator() {
+    //This method returns the contents of the tree, one element per line.
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
         BSTIterator itr = new BSTIterator(root);
-        String s = "";
         while(itr.hasNext()) {
-            T element = itr.next();
-            s += element.toString();
+            sb.append(itr.next());
             if(itr.hasNext())
-                s += "\n";
+                sb.append('\n');
         }
-        return s;
+        return sb.toString();
     }
 
 
-    //This class allows the tree to be traversed.
-    class BSTIterator implements Iterator<T>{
-        //The stack stores the node.
-        public Stack<Node<T>> stack;
+    //This class walks the elements in [lo, hi] in order. The stack holds the nodes
+    //whose left subtrees are being visited. Subtrees that are entirely below lo
+    //are skipped, and the walk ends at the first element above hi.
+    class RangeIterator implements java.util.Iterator<T> {
+        private final T lo;
+        private final T hi;
+        private final ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+
+        //This is the constructor.
+        public RangeIterator(T lo, T hi) {
+            this.lo = lo;
+            this.hi = hi;
+            pushLeft(root);
+        }
+
+        //Checks if there is a next element in the range.
+        public boolean hasNext() {
+            return !stack.isEmpty() && (hi==null || stack.peek().getElement().compareTo(hi) <= 0);
+        }
+
+        //This method returns the next element in the range.
+        public T next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            Node<T> curr = stack.pop();
+            pushLeft(curr.getRight());
+            return curr.getElement();
+        }
+
+        //This method pushes curr and its left descendants that are not below lo.
+        private void pushLeft(Node<T> curr) {
+            while(curr!=null) {
+                if(lo!=null && curr.getElement().compareTo(lo) < 0) {
+                    curr = curr.getRight();
+                }
+                else {
+                    stack.push(curr);
+                    curr = curr.getLeft();
+                }
+            }
+        }
+    }
+
+    //This class allows the tree to be traversed. It is both the project's
+    //Iterator and a java.util.Iterator, so for-each loops can use it.
+    class BSTIterator implements Iterator<T>, java.util.Iterator<T> {
+        //The stack stores the nodes whose right subtrees are still to be visited.
+        //ArrayDeque is not synchronized, unlike Stack.
+        private final ArrayDeque<Node<T>> stack;
 
         //This is the constructor.
         public BSTIterator(Node<T> root) {
-            this.stack = new Stack<Node<T>>();
+            this.stack = new ArrayDeque<Node<T>>();
             // Call to the helper function with root node
             this.inorder(root);
         }
 
         //This method returns the value of the next node.
         public T next() {
+            if(stack.isEmpty())
+                throw new NoSuchElementException();
             Node<T> root = this.stack.pop();
             if(root.getRight()!=null) {
                 this.inorder(root.getRight());
@@ -184,6 +515,109 @@ public class BST<T extends Comparable<T>> {
             }
         }
     }
+
+    //This class splits the in-order walk for streams. Like BSTIterator, the
+    //stack holds nodes that are still to be visited, each followed by its right
+    //subtree, and the bottom of the stack is the largest of them. Everything
+    //above the bottom node is in its left subtree, so trySplit() hands that off
+    //as the first half and keeps the bottom node and its right subtree. The
+    //tree must not be changed while the Spliterator is in use.
+    class BSTSpliterator implements Spliterator<T> {
+        private final ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+        //A node whose right subtree is not part of this Spliterator, or null.
+        private Node<T> last;
+        //The number of elements left, exact until the first split.
+        private long estimate;
+        private boolean sized;
+
+        //This is the constructor, for the subtree at root with size elements.
+        public BSTSpliterator(Node<T> root, long size) {
+            pushLeft(root);
+            this.estimate = size;
+            this.sized = true;
+        }
+
+        //This constructor is used by trySplit() for the nodes it hands off.
+        private BSTSpliterator(long estimate) {
+            this.estimate = estimate;
+            this.sized = false;
+        }
+
+        //This method passes the next element to action, if there is one.
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if(stack.isEmpty())
+                return false;
+            action.accept(visit());
+            return true;
+        }
+
+        //This method passes every remaining element to action, in order.
+        public void forEachRemaining(Consumer<? super T> action) {
+            while(!stack.isEmpty())
+                action.accept(visit());
+        }
+
+        //This method hands off the first part of the remaining elements, or
+        //returns null if there is too little left to split.
+        public Spliterator<T> trySplit() {
+            if(stack.isEmpty())
+                return null;
+            BSTSpliterator prefix = new BSTSpliterator(estimate >>> 1);
+            Node<T> bottom = stack.peekLast();
+            if(stack.size() > 1) {
+                //Hand off the bottom node's left subtree, which is the rest of the stack.
+                while(stack.size() > 1)
+                    prefix.stack.addLast(stack.pollFirst());
+            }
+            else if(bottom != last && bottom.getRight() != null) {
+                //Hand off the bottom node alone and keep its right subtree.
+                stack.pop();
+                prefix.stack.push(bottom);
+                prefix.last = bottom;
+                pushLeft(bottom.getRight());
+            }
+            else {
+                return null;
+            }
+            estimate -= prefix.estimate;
+            sized = false;
+            return prefix;
+        }
+
+        //This method returns the number of elements left, or an estimate after a split.
+        public long estimateSize() {
+            return estimate;
+        }
+
+        //The elements come in ascending order and are never null. Only an unsplit
+        //Spliterator knows its exact size.
+        public int characteristics() {
+            return ORDERED | SORTED | NONNULL | (sized ? SIZED : 0);
+        }
+
+        //SORTED with a null comparator means natural ordering.
+        public java.util.Comparator<? super T> getComparator() {
+            return null;
+        }
+
+        //This method pops the next node, queues its right subtree and returns its element.
+        private T visit() {
+            Node<T> curr = stack.pop();
+            if(curr != last)
+                pushLeft(curr.getRight());
+            if(sized || estimate > 0)
+                estimate--;
+            return curr.getElement();
+        }
+
+        //This method pushes curr and its left descendants.
+        private void pushLeft(Node<T> curr) {
+            while(curr!=null) {
+                stack.push(curr);
+                curr = curr.getLeft();
+            }
+        }
+    }
 }
 
 interface Iterator<T extends Comparable<T>> {
@@ -0,0 +1,901 @@
+/**********************************************************************
+ * @file ConcurrentAvlTree.java
+ * @brief This program implements the ConcurrentAvlTree class, a thread-safe
+ * AVL tree with the same public operations as AvlTree. It follows Bronson,
+ * Casper, Chafi and Olukotun, "A Practical Concurrent Binary Search Tree"
+ * (PPoPP 2010). Writers lock only the nodes they change: an insert locks
+ * the node it links the new leaf under, a remove locks the node and its
+ * parent, and a rotation locks the nodes it moves, top-down. Writers in
+ * different parts of the tree therefore never wait for each other.
+ * Readers lock nothing on the fast path. Every node has a version number
+ * that a rotation changes when it moves the node down, and a reader
+ * checks, after each step, that the version of the node it came from has
+ * not changed, and retries that step if it has. A reader that reaches a
+ * node while a rotation is moving it spins briefly, then waits on that
+ * node's lock until the rotation is done. A remove of a node with two
+ * children leaves it in place as a routing node, with no item, which is
+ * unlinked later once it has at most one child. Balance is repaired by the
+ * writer that damaged it, walking up from the change.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+// ConcurrentAvlTree class
+//
+// CONSTRUCTION: with no initializer
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// Comparable remove( x ) --> Remove x; return the removed item, or null
+// boolean contains( x )  --> Return true if x is present
+// Comparable search( x ) --> Return the item equal to x, or null
+// Comparable findMin( )  --> Return smallest item
+// Comparable findMax( )  --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// void printTree( )      --> Print tree in sorted order
+// ******************ERRORS********************************
+// Throws UnderflowException as appropriate
+
+/**
+ * Implements a thread-safe AVL tree with per-node locks for writers and
+ * version-validated readers, which only wait behind a rotation in progress.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public class ConcurrentAvlTree<AnyType extends Comparable<? super AnyType>> implements SortedIndex<AnyType> {
+
+    /**
+     * Construct the tree.
+     */
+    public ConcurrentAvlTree() {
+        rootHolder = new AvlNode<>(null, null, null);
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        while (attemptInsert(x, rootHolder, RIGHT, rootHolder.version) == RETRY)
+            ;
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     *
+     * @param x the item to remove.
+     * @return the item that was removed, or null if x was not found.
+     */
+    @SuppressWarnings("unchecked")
+    public AnyType remove(AnyType x) {
+        while (true) {
+            Object result = attemptRemove(x, rootHolder, RIGHT, rootHolder.version);
+            if (result != RETRY)
+                return (AnyType) result;
+        }
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return smallest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMin() {
+        AnyType min = extreme(LEFT);
+        if (min == null)
+            throw new UnderflowException();
+        return min;
+    }
+
+    /**
+     * Find the largest item in the tree.
+     *
+     * @return the largest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMax() {
+        AnyType max = extreme(RIGHT);
+        if (max == null)
+            throw new UnderflowException();
+        return max;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains(AnyType x) {
+        return search(x) != null;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return the matching item in the tree, or null if x is not found.
+     */
+    @SuppressWarnings("unchecked")
+    public AnyType search(AnyType x) {
+        while (true) {
+            Object result = attemptGet(x, rootHolder, RIGHT, rootHolder.version);
+            if (result != RETRY)
+                return (AnyType) result;
+        }
+    }
+
+    /**
+     * Make the tree logically empty. Operations that are already running
+     * may still finish on the tree as it was.
+     */
+    public void makeEmpty() {
+        synchronized (rootHolder) {
+            rootHolder.right = null;
+        }
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return extreme(LEFT) == null;
+    }
+
+    /**
+     * Print the tree contents in sorted order. Only call this while no
+     * other thread is changing the tree.
+     */
+    public void printTree() {
+        if (isEmpty())
+            System.out.println("Empty tree");
+        else
+            printTree(rootHolder.right);
+    }
+
+    /**
+     * Check the AVL invariants, printing "OOPS!!" if any fails. Only call
+     * this while no other thread is changing the tree; by then every writer
+     * has finished repairing the balance it damaged.
+     */
+    public void checkBalance() {
+        checkBalance(rootHolder.right, rootHolder);
+    }
+
+    private static final int LEFT = -1;
+    private static final int RIGHT = 1;
+
+    // Returned by the attempt methods when a step must be redone from the
+    // node above, and by attemptInsert when it is done
+    private static final Object RETRY = new Object();
+    private static final Object DONE = new Object();
+
+    // Version bits. A node is UNLINKED for good once it leaves the tree, and
+    // SHRINKING while a rotation moves it down; ending the rotation adds
+    // SHRINK_COUNT, so a reader that saw the old version knows to retry.
+    private static final long UNLINKED = 1L;
+    private static final long SHRINKING = 2L;
+    private static final long SHRINK_COUNT = 4L;
+
+    // How many times a reader rechecks a node being rotated before it waits
+    // for the rotation's lock instead
+    private static final int SPIN_COUNT = 100;
+
+    // nodeCondition results; any other result is the node's correct height
+    private static final int UNLINK_REQUIRED = -1;
+    private static final int REBALANCE_REQUIRED = -2;
+    private static final int NOTHING_REQUIRED = -3;
+
+    /**
+     * Internal method to search below node, whose version was nodeVersion
+     * when the search reached it, on side dir.
+     *
+     * @return the matching item, null if x is not found, or RETRY if node
+     * moved down and the search must resume from its parent.
+     */
+    private Object attemptGet(AnyType x, AvlNode<AnyType> node, int dir, long nodeVersion) {
+        while (true) {
+            AvlNode<AnyType> child = node.child(dir);
+            if (node.version != nodeVersion)
+                return RETRY;
+            if (child == null)
+                return null;
+            int compareResult = x.compareTo(child.key);
+            if (compareResult == 0)
+                return child.value;   // null for a routing node
+            long childVersion = child.version;
+            if ((childVersion & (SHRINKING | UNLINKED)) != 0) {
+                waitUntilNotChanging(child);
+            } else if (child == node.child(dir)) {
+                if (node.version != nodeVersion)
+                    return RETRY;
+                Object result = attemptGet(x, child, compareResult, childVersion);
+                if (result != RETRY)
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Internal method to insert x below node, on side dir.
+     *
+     * @return DONE, or RETRY if node moved down.
+     */
+    private Object attemptInsert(AnyType x, AvlNode<AnyType> node, int dir, long nodeVersion) {
+        while (true) {
+            AvlNode<AnyType> child = node.child(dir);
+            if (node.version != nodeVersion)
+                return RETRY;
+            if (child == null) {
+                // Link a new leaf, if the place is still empty
+                AvlNode<AnyType> damaged;
+                synchronized (node) {
+                    if (node.version != nodeVersion)
+                        return RETRY;
+                    if (node.child(dir) != null)
+                        continue;
+                    node.setChild(dir, new AvlNode<>(x, x, node));
+                    damaged = fixHeight(node);
+                }
+                fixHeightAndRebalance(damaged);
+                return DONE;
+            }
+            int compareResult = x.compareTo(child.key);
+            if (compareResult == 0) {
+                if (child.value != null)
+                    return DONE;  // Duplicate; do nothing
+                // Put the item back into a routing node that is still linked
+                synchronized (child) {
+                    if (child.version == UNLINKED)
+                        continue;
+                    if (child.value == null)
+                        child.value = x;
+                }
+                return DONE;
+            }
+            long childVersion = child.version;
+            if ((childVersion & (SHRINKING | UNLINKED)) != 0) {
+                waitUntilNotChanging(child);
+            } else if (child == node.child(dir)) {
+                if (node.version != nodeVersion)
+                    return RETRY;
+                if (attemptInsert(x, child, compareResult, childVersion) == DONE)
+                    return DONE;
+            }
+        }
+    }
+
+    /**
+     * Internal method to remove x from below node, on side dir.
+     *
+     * @return the removed item, null if x is not found, or RETRY.
+     */
+    private Object attemptRemove(AnyType x, AvlNode<AnyType> node, int dir, long nodeVersion) {
+        while (true) {
+            AvlNode<AnyType> child = node.child(dir);
+            if (node.version != nodeVersion)
+                return RETRY;
+            if (child == null)
+                return null;
+            int compareResult = x.compareTo(child.key);
+            if (compareResult == 0) {
+                Object result = attemptRemoveNode(node, child);
+                if (result != RETRY)
+                    return result;
+                continue;
+            }
+            long childVersion = child.version;
+            if ((childVersion & (SHRINKING | UNLINKED)) != 0) {
+                waitUntilNotChanging(child);
+            } else if (child == node.child(dir)) {
+                if (node.version != nodeVersion)
+                    return RETRY;
+                Object result = attemptRemove(x, child, compareResult, childVersion);
+                if (result != RETRY)
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Internal method to remove the item of node n, a child of parent. A node
+     * with at most one child is unlinked; one with two becomes a routing node.
+     *
+     * @return the removed item, null if n is already a routing node, or RETRY.
+     */
+    private Object attemptRemoveNode(AvlNode<AnyType> parent, AvlNode<AnyType> n) {
+        if (n.value == null)
+            return null;
+        AnyType removed;
+        if (n.left == null || n.right == null) {
+            AvlNode<AnyType> damaged;
+            synchronized (parent) {
+                if (parent.version == UNLINKED || n.parent != parent)
+                    return RETRY;
+                synchronized (n) {
+                    removed = n.value;
+                    if (removed == null)
+                        return null;
+                    if (!attemptUnlink(parent, n))
+                        return RETRY;
+                }
+                damaged = fixHeight(parent);
+            }
+            fixHeightAndRebalance(damaged);
+        } else {
+            synchronized (n) {
+                // n's children cannot be unlinked without its lock, so this check holds
+                if (n.version == UNLINKED || n.left == null || n.right == null)
+                    return RETRY;
+                removed = n.value;
+                n.value = null;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Internal method to unlink n, which has at most one child, from parent.
+     * Both must be locked.
+     *
+     * @return false if n is no longer parent's child or now has two children.
+     */
+    private boolean attemptUnlink(AvlNode<AnyType> parent, AvlNode<AnyType> n) {
+        AvlNode<AnyType> parentLeft = parent.left;
+        AvlNode<AnyType> parentRight = parent.right;
+        if (parentLeft != n && parentRight != n)
+            return false;
+        AvlNode<AnyType> left = n.left;
+        AvlNode<AnyType> right = n.right;
+        if (left != null && right != null)
+            return false;
+        AvlNode<AnyType> splice = left != null ? left : right;
+        if (parentLeft == n)
+            parent.left = splice;
+        else
+            parent.right = splice;
+        if (splice != null)
+            splice.parent = parent;
+        n.version = UNLINKED;
+        n.value = null;
+        return true;
+    }
+
+    /**
+     * Internal method to find the smallest (dir LEFT) or largest item.
+     *
+     * @return the item, or null if the tree is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private AnyType extreme(int dir) {
+        while (true) {
+            AvlNode<AnyType> n = rootHolder.right;
+            if (n == null)
+                return null;
+            long version = n.version;
+            if ((version & (SHRINKING | UNLINKED)) != 0) {
+                waitUntilNotChanging(n);
+            } else if (n == rootHolder.right) {
+                Object result = attemptExtreme(n, dir, version);
+                if (result != RETRY)
+                    return (AnyType) result;
+            }
+        }
+    }
+
+    /**
+     * Internal method to find the last item on side dir below node.
+     *
+     * @return the item, or RETRY.
+     */
+    private Object attemptExtreme(AvlNode<AnyType> node, int dir, long nodeVersion) {
+        while (true) {
+            AvlNode<AnyType> child = node.child(dir);
+            if (child == null) {
+                AnyType value = node.value;
+                if (node.version != nodeVersion)
+                    return RETRY;
+                if (value != null)
+                    return value;
+                // A routing node with a missing child is about to be unlinked;
+                // help unlink it, then look again
+                fixHeightAndRebalance(node);
+                return RETRY;
+            }
+            if (node.version != nodeVersion)
+                return RETRY;
+            long childVersion = child.version;
+            if ((childVersion & (SHRINKING | UNLINKED)) != 0) {
+                waitUntilNotChanging(child);
+            } else if (child == node.child(dir)) {
+                if (node.version != nodeVersion)
+                    return RETRY;
+                Object result = attemptExtreme(child, dir, childVersion);
+                if (result != RETRY)
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Wait while a rotation is moving n down. The rotation holds n's lock, so
+     * after a short spin this waits on the lock instead.
+     */
+    private static void waitUntilNotChanging(AvlNode<?> n) {
+        long version = n.version;
+        if ((version & SHRINKING) != 0) {
+            for (int i = 0; i < SPIN_COUNT; i++) {
+                if (n.version != version)
+                    return;
+            }
+            synchronized (n) {
+                // The rotation has finished once the lock is free
+            }
+        }
+    }
+
+    /**
+     * Internal method to classify node n: UNLINK_REQUIRED for a routing node
+     * with a missing child, REBALANCE_REQUIRED if its children's heights
+     * differ by more than one, NOTHING_REQUIRED if its height is right, or
+     * else its correct height.
+     */
+    private static int nodeCondition(AvlNode<?> n) {
+        AvlNode<?> left = n.left;
+        AvlNode<?> right = n.right;
+        if ((left == null || right == null) && n.value == null)
+            return UNLINK_REQUIRED;
+        int hL = height(left);
+        int hR = height(right);
+        int balance = hL - hR;
+        if (balance < -1 || balance > 1)
+            return REBALANCE_REQUIRED;
+        int newHeight = 1 + Math.max(hL, hR);
+        return n.height != newHeight ? newHeight : NOTHING_REQUIRED;
+    }
+
+    /**
+     * Internal method to repair node n, then every ancestor whose height or
+     * balance changes as a result. Each step locks only the nodes it changes.
+     */
+    private void fixHeightAndRebalance(AvlNode<AnyType> n) {
+        while (n != null && n.parent != null) {
+            int condition = nodeCondition(n);
+            if (condition == NOTHING_REQUIRED || n.version == UNLINKED)
+                return;
+            if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                synchronized (n) {
+                    n = fixHeight(n);
+                }
+            } else {
+                AvlNode<AnyType> parent = n.parent;
+                synchronized (parent) {
+                    if (parent.version != UNLINKED && n.parent == parent) {
+                        synchronized (n) {
+                            n = rebalance(parent, n);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Internal method to update the height of the locked node n.
+     *
+     * @return the next node to repair, or null if none.
+     */
+    private AvlNode<AnyType> fixHeight(AvlNode<AnyType> n) {
+        int condition = nodeCondition(n);
+        switch (condition) {
+            case REBALANCE_REQUIRED:
+            case UNLINK_REQUIRED:
+                return n;
+            case NOTHING_REQUIRED:
+                return null;
+            default:
+                n.height = condition;
+                return n.parent;
+        }
+    }
+
+    /**
+     * Internal method to unlink, rotate or fix the height of n, a child of
+     * parent. Both must be locked.
+     *
+     * @return the next node to repair, or null if none.
+     */
+    private AvlNode<AnyType> rebalance(AvlNode<AnyType> parent, AvlNode<AnyType> n) {
+        AvlNode<AnyType> left = n.left;
+        AvlNode<AnyType> right = n.right;
+        if ((left == null || right == null) && n.value == null)
+            return attemptUnlink(parent, n) ? fixHeight(parent) : n;
+
+        int hN = n.height;
+        int hL = height(left);
+        int hR = height(right);
+        int newHeight = 1 + Math.max(hL, hR);
+        int balance = hL - hR;
+        if (balance > 1)
+            return rebalanceToRight(parent, n, left, hR);
+        else if (balance < -1)
+            return rebalanceToLeft(parent, n, right, hL);
+        else if (newHeight != hN) {
+            n.height = newHeight;
+            return fixHeight(parent);
+        }
+        return null;
+    }
+
+    /**
+     * Internal method to rotate n's left-heavy subtree, with one rotation or
+     * two. parent and n are locked; this locks n's left child and, for a
+     * double rotation, its right child. A routing node that would move with
+     * only one child is unlinked first, so no rotation leaves one behind.
+     */
+    private AvlNode<AnyType> rebalanceToRight(AvlNode<AnyType> parent, AvlNode<AnyType> n,
+                                              AvlNode<AnyType> nL, int hR) {
+        synchronized (nL) {
+            if (nL.value == null && (nL.left == null || nL.right == null)) {
+                attemptUnlink(n, nL);
+                return n;
+            }
+            int hL = nL.height;
+            if (hL - hR <= 1)
+                return n;  // Changed since it was checked; look again
+            AvlNode<AnyType> nLR = nL.right;
+            int hLL = height(nL.left);
+            int hLR = height(nLR);
+            if (hLL >= hLR)
+                return rotateRight(parent, n, nL, hR, hLL, nLR, hLR);
+            synchronized (nLR) {
+                if (nLR.value == null && (nLR.left == null || nLR.right == null)) {
+                    attemptUnlink(nL, nLR);
+                    fixHeight(nL);
+                    return n;
+                }
+                hLR = nLR.height;
+                if (hLL >= hLR)
+                    return rotateRight(parent, n, nL, hR, hLL, nLR, hLR);
+                int hLRL = height(nLR.left);
+                int b = hLL - hLRL;
+                if (b >= -1 && b <= 1)
+                    return rotateRightOverLeft(parent, n, nL, hR, hLL, nLR, hLRL);
+            }
+            // nL would still be out of balance after a double rotation, so
+            // rotate it first and leave n for the next step
+            return rebalanceToLeft(n, nL, nLR, hLL);
+        }
+    }
+
+    /**
+     * Internal method to rotate n's right-heavy subtree; the mirror image of
+     * rebalanceToRight.
+     */
+    private AvlNode<AnyType> rebalanceToLeft(AvlNode<AnyType> parent, AvlNode<AnyType> n,
+                                             AvlNode<AnyType> nR, int hL) {
+        synchronized (nR) {
+            if (nR.value == null && (nR.left == null || nR.right == null)) {
+                attemptUnlink(n, nR);
+                return n;
+            }
+            int hR = nR.height;
+            if (hL - hR >= -1)
+                return n;  // Changed since it was checked; look again
+            AvlNode<AnyType> nRL = nR.left;
+            int hRR = height(nR.right);
+            int hRL = height(nRL);
+            if (hRR >= hRL)
+                return rotateLeft(parent, n, nR, hL, hRR, nRL, hRL);
+            synchronized (nRL) {
+                if (nRL.value == null && (nRL.left == null || nRL.right == null)) {
+                    attemptUnlink(nR, nRL);
+                    fixHeight(nR);
+                    return n;
+                }
+                hRL = nRL.height;
+                if (hRR >= hRL)
+                    return rotateLeft(parent, n, nR, hL, hRR, nRL, hRL);
+                int hRLR = height(nRL.right);
+                int b = hRR - hRLR;
+                if (b >= -1 && b <= 1)
+                    return rotateLeftOverRight(parent, n, nR, hL, hRR, nRL, hRLR);
+            }
+            return rebalanceToRight(n, nR, nRL, hRR);
+        }
+    }
+
+    /**
+     * Rotate n's left child nL up into n's place. n moves down, so its version
+     * is marked SHRINKING while the links change. If n is a routing node left
+     * with one child, it is unlinked while it is still locked.
+     *
+     * @return the next node to repair, or null if none.
+     */
+    private AvlNode<AnyType> rotateRight(AvlNode<AnyType> parent, AvlNode<AnyType> n, AvlNode<AnyType> nL,
+                                         int hR, int hLL, AvlNode<AnyType> nLR, int hLR) {
+        long nodeVersion = n.version;
+        AvlNode<AnyType> parentLeft = parent.left;
+        n.version = nodeVersion | SHRINKING;
+
+        n.left = nLR;
+        if (nLR != null)
+            nLR.parent = n;
+        nL.right = n;
+        n.parent = nL;
+        if (parentLeft == n)
+            parent.left = nL;
+        else
+            parent.right = nL;
+        nL.parent = parent;
+
+        int hNNew = 1 + Math.max(hLR, hR);
+        n.height = hNNew;
+        n.version = nodeVersion + SHRINK_COUNT;
+        boolean unlinkN = nLR == null && n.value == null;
+        if (unlinkN) {
+            attemptUnlink(nL, n);
+            hNNew = hR;
+        }
+        nL.height = 1 + Math.max(hLL, hNNew);
+
+        // Report the lowest node that may still need repair
+        if (!unlinkN) {
+            int balanceN = hLR - hR;
+            if (balanceN < -1 || balanceN > 1)
+                return n;
+        }
+        int balanceL = hLL - hNNew;
+        if (balanceL < -1 || balanceL > 1)
+            return nL;
+        return fixHeight(parent);
+    }
+
+    /**
+     * Rotate n's right child nR up into n's place; the mirror image of
+     * rotateRight.
+     */
+    private AvlNode<AnyType> rotateLeft(AvlNode<AnyType> parent, AvlNode<AnyType> n, AvlNode<AnyType> nR,
+                                        int hL, int hRR, AvlNode<AnyType> nRL, int hRL) {
+        long nodeVersion = n.version;
+        AvlNode<AnyType> parentLeft = parent.left;
+        n.version = nodeVersion | SHRINKING;
+
+        n.right = nRL;
+        if (nRL != null)
+            nRL.parent = n;
+        nR.left = n;
+        n.parent = nR;
+        if (parentLeft == n)
+            parent.left = nR;
+        else
+            parent.right = nR;
+        nR.parent = parent;
+
+        int hNNew = 1 + Math.max(hL, hRL);
+        n.height = hNNew;
+        n.version = nodeVersion + SHRINK_COUNT;
+        boolean unlinkN = nRL == null && n.value == null;
+        if (unlinkN) {
+            attemptUnlink(nR, n);
+            hNNew = hL;
+        }
+        nR.height = 1 + Math.max(hNNew, hRR);
+
+        if (!unlinkN) {
+            int balanceN = hRL - hL;
+            if (balanceN < -1 || balanceN > 1)
+                return n;
+        }
+        int balanceR = hRR - hNNew;
+        if (balanceR < -1 || balanceR > 1)
+            return nR;
+        return fixHeight(parent);
+    }
+
+    /**
+     * Double rotation: n's left child's right child nLR moves up into n's
+     * place, with nL and n below it. Both nL and n move down, and either is
+     * unlinked if it is a routing node left with one child.
+     */
+    private AvlNode<AnyType> rotateRightOverLeft(AvlNode<AnyType> parent, AvlNode<AnyType> n,
+                                                 AvlNode<AnyType> nL, int hR, int hLL,
+                                                 AvlNode<AnyType> nLR, int hLRL) {
+        long nodeVersion = n.version;
+        long leftVersion = nL.version;
+        AvlNode<AnyType> parentLeft = parent.left;
+        AvlNode<AnyType> nLRL = nLR.left;
+        AvlNode<AnyType> nLRR = nLR.right;
+        int hLRR = height(nLRR);
+        n.version = nodeVersion | SHRINKING;
+        nL.version = leftVersion | SHRINKING;
+
+        n.left = nLRR;
+        if (nLRR != null)
+            nLRR.parent = n;
+        nL.right = nLRL;
+        if (nLRL != null)
+            nLRL.parent = nL;
+        nLR.left = nL;
+        nL.parent = nLR;
+        nLR.right = n;
+        n.parent = nLR;
+        if (parentLeft == n)
+            parent.left = nLR;
+        else
+            parent.right = nLR;
+        nLR.parent = parent;
+
+        int hNNew = 1 + Math.max(hLRR, hR);
+        n.height = hNNew;
+        int hLNew = 1 + Math.max(hLL, hLRL);
+        nL.height = hLNew;
+        n.version = nodeVersion + SHRINK_COUNT;
+        nL.version = leftVersion + SHRINK_COUNT;
+        boolean unlinkN = nLRR == null && n.value == null;
+        if (unlinkN) {
+            attemptUnlink(nLR, n);
+            hNNew = hR;
+        }
+        if (nLRL == null && nL.value == null) {
+            attemptUnlink(nLR, nL);
+            hLNew = hLL;
+        }
+        nLR.height = 1 + Math.max(hLNew, hNNew);
+
+        // rebalanceToRight only does this rotation when nL ends up balanced
+        if (!unlinkN) {
+            int balanceN = hLRR - hR;
+            if (balanceN < -1 || balanceN > 1)
+                return n;
+        }
+        int balanceLR = hLNew - hNNew;
+        if (balanceLR < -1 || balanceLR > 1)
+            return nLR;
+        return fixHeight(parent);
+    }
+
+    /**
+     * Double rotation; the mirror image of rotateRightOverLeft.
+     */
+    private AvlNode<AnyType> rotateLeftOverRight(AvlNode<AnyType> parent, AvlNode<AnyType> n,
+                                                 AvlNode<AnyType> nR, int hL, int hRR,
+                                                 AvlNode<AnyType> nRL, int hRLR) {
+        long nodeVersion = n.version;
+        long rightVersion = nR.version;
+        AvlNode<AnyType> parentLeft = parent.left;
+        AvlNode<AnyType> nRLL = nRL.left;
+        AvlNode<AnyType> nRLR = nRL.right;
+        int hRLL = height(nRLL);
+        n.version = nodeVersion | SHRINKING;
+        nR.version = rightVersion | SHRINKING;
+
+        n.right = nRLL;
+        if (nRLL != null)
+            nRLL.parent = n;
+        nR.left = nRLR;
+        if (nRLR != null)
+            nRLR.parent = nR;
+        nRL.right = nR;
+        nR.parent = nRL;
+        nRL.left = n;
+        n.parent = nRL;
+        if (parentLeft == n)
+            parent.left = nRL;
+        else
+            parent.right = nRL;
+        nRL.parent = parent;
+
+        int hNNew = 1 + Math.max(hL, hRLL);
+        n.height = hNNew;
+        int hRNew = 1 + Math.max(hRLR, hRR);
+        nR.height = hRNew;
+        n.version = nodeVersion + SHRINK_COUNT;
+        nR.version = rightVersion + SHRINK_COUNT;
+        boolean unlinkN = nRLL == null && n.value == null;
+        if (unlinkN) {
+            attemptUnlink(nRL, n);
+            hNNew = hL;
+        }
+        if (nRLR == null && nR.value == null) {
+            attemptUnlink(nRL, nR);
+            hRNew = hRR;
+        }
+        nRL.height = 1 + Math.max(hNNew, hRNew);
+
+        if (!unlinkN) {
+            int balanceN = hRLL - hL;
+            if (balanceN < -1 || balanceN > 1)
+                return n;
+        }
+        int balanceRL = hRNew - hNNew;
+        if (balanceRL < -1 || balanceRL > 1)
+            return nRL;
+        return fixHeight(parent);
+    }
+
+    /**
+     * Internal method to check a subtree.
+     *
+     * @return the height of t.
+     */
+    private int checkBalance(AvlNode<AnyType> t, AvlNode<AnyType> parent) {
+        if (t == null)
+            return 0;
+
+        int hl = checkBalance(t.left, t);
+        int hr = checkBalance(t.right, t);
+        if (Math.abs(hl - hr) > 1 || t.height != 1 + Math.max(hl, hr) || t.parent != parent
+                || (t.left != null && t.left.key.compareTo(t.key) >= 0)
+                || (t.right != null && t.right.key.compareTo(t.key) <= 0)
+                || (t.value == null && (t.left == null || t.right == null)))
+            System.out.println("OOPS!!");
+
+        return t.height;
+    }
+
+    /**
+     * Internal method to print a subtree in (sorted) order, skipping routing
+     * nodes.
+     *
+     * @param t the node that roots the tree.
+     */
+    private void printTree(AvlNode<AnyType> t) {
+        if (t == null)
+            return;
+        printTree(t.left);
+        if (t.value != null)
+            System.out.println(t.value);
+        printTree(t.right);
+    }
+
+    /**
+     * Return the height of node t, or 0, if null.
+     */
+    private static int height(AvlNode<?> t) {
+        return t == null ? 0 : t.height;
+    }
+
+    /**
+     * A node. Its key never changes; everything else is volatile, so readers
+     * see each change as soon as it is made. The node's lock guards changes
+     * to its links, value and version.
+     */
+    private static final class AvlNode<AnyType> {
+        AvlNode(AnyType theKey, AnyType theValue, AvlNode<AnyType> theParent) {
+            key = theKey;
+            value = theValue;
+            parent = theParent;
+            height = 1;
+        }
+
+        AvlNode<AnyType> child(int dir) {
+            return dir < 0 ? left : right;
+        }
+
+        void setChild(int dir, AvlNode<AnyType> child) {
+            if (dir < 0)
+                left = child;
+            else
+                right = child;
+        }
+
+        final AnyType key;                 // The key the node is placed by
+        volatile AnyType value;            // The item, or null for a routing node
+        volatile int height;               // Height, with a leaf at 1
+        volatile long version;             // See UNLINKED, SHRINKING and SHRINK_COUNT
+        volatile AvlNode<AnyType> parent;  // Parent
+        volatile AvlNode<AnyType> left;    // Left child
+        volatile AvlNode<AnyType> right;   // Right child
+    }
+
+    /**
+     * A node with no key above the real root, which is its right child. It is
+     * never rotated, so its version never changes.
+     */
+    private final AvlNode<AnyType> rootHolder;
+}
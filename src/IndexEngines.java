@@ -0,0 +1,98 @@
+/**********************************************************************
+ * @file IndexEngines.java
+ * @brief This program implements the IndexEngines class, the registry of
+ * SortedIndex engines that Proj2 can time by name (--engines=bst,avl,...).
+ * Each engine has a factory for an empty index and may have a bulk
+ * loader that builds an index from a sorted list (used by --bulk). To add
+ * an engine, register it in the static block below.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class IndexEngines {
+    //The factories for empty indexes, by engine name, in registration order.
+    private static final Map<String, Supplier<SortedIndex<?>>> FACTORIES = new LinkedHashMap<>();
+    //The bulk loaders for the engines that have one.
+    private static final Map<String, Function<List<?>, SortedIndex<?>>> BULK_LOADERS = new LinkedHashMap<>();
+
+    //The engines this project provides.
+    static {
+        register("bst", BST::new, IndexEngines::bstFromSorted);
+        register("avl", AvlTree::new, IndexEngines::avlFromSorted);
+        register("arrayavl", ArrayAvlTree::new, null);
+        register("concurrentavl", ConcurrentAvlTree::new, null);
+        register("skiplist", LockFreeSkipList::new, null);
+        register("btree", BPlusTree::new, null);
+        register("redblack", RedBlackTree::new, null);
+        register("splay", SplayTree::new, null);
+        register("treap", BST::treap, null);
+    }
+
+    //This method adds an engine. bulkLoader may be null if the engine has none.
+    public static void register(String name, Supplier<SortedIndex<?>> factory,
+                                Function<List<?>, SortedIndex<?>> bulkLoader) {
+        FACTORIES.put(name, factory);
+        if (bulkLoader != null)
+            BULK_LOADERS.put(name, bulkLoader);
+        else
+            BULK_LOADERS.remove(name);
+    }
+
+    //This method returns the names of every registered engine.
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(FACTORIES.keySet());
+    }
+
+    //This method checks if an engine is registered under name.
+    public static boolean exists(String name) {
+        return FACTORIES.containsKey(name);
+    }
+
+    //This method creates an empty index of the named engine.
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<? super T>> SortedIndex<T> create(String name) {
+        Supplier<SortedIndex<?>> factory = FACTORIES.get(name);
+        if (factory == null)
+            throw new IllegalArgumentException("unknown engine \"" + name + "\"; known engines: " + names());
+        return (SortedIndex<T>) factory.get();
+    }
+
+    //This method checks if the named engine can be built straight from a sorted list.
+    public static boolean hasBulkLoader(String name) {
+        return BULK_LOADERS.containsKey(name);
+    }
+
+    //This method builds an index of the named engine from a sorted list, with its
+    //bulk loader if it has one, or else by inserting the items one at a time.
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<? super T>> SortedIndex<T> buildFromSorted(String name, List<T> sorted) {
+        Function<List<?>, SortedIndex<?>> loader = BULK_LOADERS.get(name);
+        if (loader != null)
+            return (SortedIndex<T>) loader.apply(sorted);
+        SortedIndex<T> index = create(name);
+        for (T x : sorted)
+            index.insert(x);
+        return index;
+    }
+
+    //The bulk loader for "bst". BST needs T extends Comparable<T>, which the
+    //registry cannot express, so the list is passed through raw.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static SortedIndex<?> bstFromSorted(List<?> sorted) {
+        return BST.buildFromSorted((List) sorted);
+    }
+
+    //The bulk loader for "avl".
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static SortedIndex<?> avlFromSorted(List<?> sorted) {
+        return AvlTree.buildFromSorted((List) sorted);
+    }
+}
@@ -0,0 +1,337 @@
+/**********************************************************************
+ * @file LockFreeSkipList.java
+ * @brief This program implements the LockFreeSkipList class, a sorted
+ * index that many threads can update at once without locks. It follows
+ * the lock-free skip list of Herlihy and Shavit ("The Art of
+ * Multiprocessor Programming", ch. 14). Each node has a tower of next
+ * links. A link pairs the successor with a "marked" flag, and links are
+ * replaced with VarHandle compare-and-set. remove marks a node's links top
+ * to bottom (the level-0 mark is the moment it leaves the set), and later
+ * traversals unlink marked nodes. Inserts into different parts of the list
+ * never wait for each other and nothing is ever rebalanced, so concurrent
+ * ingest threads do not serialize the way they would on a tree.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LockFreeSkipList<T extends Comparable<? super T>> implements SortedIndex<T>, Iterable<T> {
+    //The most levels a tower can have; enough for far more than 2^32 items.
+    private static final int MAX_LEVEL = 32;
+
+    //CAS on an element of a next[] array.
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Link[].class);
+
+    //head and tail are sentinels that sit before and after every item.
+    private final Node<T> head;
+    private final Node<T> tail;
+    //The number of levels any tower has ever reached. Searches start at the top
+    //of these instead of at MAX_LEVEL, since the head links above it all point
+    //at tail. It only grows, and is raised before a taller tower is linked.
+    private final AtomicInteger levels = new AtomicInteger(1);
+
+    //The constructor creates an empty list.
+    public LockFreeSkipList() {
+        tail = new Node<>(null, MAX_LEVEL);
+        head = new Node<>(null, MAX_LEVEL);
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            tail.next[i] = new Link<>(null, false);
+            head.next[i] = new Link<>(tail, false);
+        }
+    }
+
+    //This method inserts x. Nothing is done if an equal item is already present.
+    public void insert(T x) {
+        add(x);
+    }
+
+    //This method inserts x and returns true, or returns false if an equal item is
+    //already present.
+    public boolean add(T x) {
+        int topLevel = randomLevel();
+        raiseLevels(topLevel);
+        Node<T>[] preds = newNodeArray(MAX_LEVEL);
+        Node<T>[] succs = newNodeArray(MAX_LEVEL);
+        while (true) {
+            if (find(x, preds, succs))
+                return false;
+            Node<T> node = new Node<>(x, topLevel);
+            for (int level = 0; level < topLevel; level++)
+                node.next[level] = new Link<>(succs[level], false);
+            //Linking at level 0 adds x to the set.
+            if (!casNext(preds[0], 0, succs[0], node))
+                continue;
+            //The upper levels only speed up searches; link them one at a time.
+            for (int level = 1; level < topLevel; level++) {
+                while (true) {
+                    Link<T> own = getNext(node, level);
+                    //Stop if a remove has already started marking this node.
+                    if (own.marked)
+                        return true;
+                    if (own.node != succs[level] && !NEXT.compareAndSet(node.next, level, own,
+                            new Link<>(succs[level], false)))
+                        continue;
+                    if (casNext(preds[level], level, succs[level], node))
+                        break;
+                    find(x, preds, succs);
+                }
+            }
+            return true;
+        }
+    }
+
+    //This method returns the item equal to x, or null if there is none. It never
+    //changes the list, so it does not help unlink marked nodes.
+    public T search(T x) {
+        Node<T> pred = head;
+        Node<T> curr = null;
+        for (int level = levels.get() - 1; level >= 0; level--) {
+            curr = getNext(pred, level).node;
+            while (true) {
+                Link<T> link = getNext(curr, level);
+                //Step over marked (removed) nodes.
+                while (link.marked) {
+                    curr = link.node;
+                    link = getNext(curr, level);
+                }
+                if (less(curr, x)) {
+                    pred = curr;
+                    curr = link.node;
+                } else {
+                    break;
+                }
+            }
+        }
+        return (curr != tail && curr.key.compareTo(x) == 0) ? curr.key : null;
+    }
+
+    //This method checks if an item equal to x is present.
+    public boolean contains(T x) {
+        return search(x) != null;
+    }
+
+    //This method removes the item equal to x and returns it, or returns null if
+    //there is none.
+    public T remove(T x) {
+        Node<T>[] preds = newNodeArray(MAX_LEVEL);
+        Node<T>[] succs = newNodeArray(MAX_LEVEL);
+        if (!find(x, preds, succs))
+            return null;
+        Node<T> node = succs[0];
+        //Mark the upper levels first, so the node stops being a shortcut.
+        for (int level = node.next.length - 1; level >= 1; level--) {
+            Link<T> link = getNext(node, level);
+            while (!link.marked) {
+                NEXT.compareAndSet(node.next, level, link, new Link<>(link.node, true));
+                link = getNext(node, level);
+            }
+        }
+        //Whoever marks level 0 is the one that removed the item.
+        while (true) {
+            Link<T> link = getNext(node, 0);
+            if (link.marked)
+                return null;
+            if (NEXT.compareAndSet(node.next, 0, link, new Link<>(link.node, true))) {
+                //Unlink the node from every level.
+                find(x, preds, succs);
+                return node.key;
+            }
+        }
+    }
+
+    //This method returns the smallest item.
+    public T findMin() {
+        Node<T> curr = getNext(head, 0).node;
+        while (curr != tail) {
+            Link<T> link = getNext(curr, 0);
+            if (!link.marked)
+                return curr.key;
+            curr = link.node;
+        }
+        throw new UnderflowException();
+    }
+
+    //This method returns the largest item. Under concurrent updates the answer is
+    //the largest item present at some moment during the call.
+    public T findMax() {
+        //Go as far right as possible on each level, then finish on level 0.
+        Node<T> pred = head;
+        for (int level = levels.get() - 1; level >= 1; level--) {
+            Node<T> curr = getNext(pred, level).node;
+            while (curr != tail) {
+                Link<T> link = getNext(curr, level);
+                if (!link.marked)
+                    pred = curr;
+                curr = link.node;
+            }
+        }
+        T max = null;
+        if (pred != head && !getNext(pred, 0).marked)
+            max = pred.key;
+        Node<T> curr = getNext(pred, 0).node;
+        while (curr != tail) {
+            Link<T> link = getNext(curr, 0);
+            if (!link.marked)
+                max = curr.key;
+            curr = link.node;
+        }
+        if (max == null)
+            throw new UnderflowException();
+        return max;
+    }
+
+    //This method checks if the list is empty.
+    public boolean isEmpty() {
+        try {
+            findMin();
+            return false;
+        } catch (UnderflowException e) {
+            return true;
+        }
+    }
+
+    //This method removes every item. It must not run at the same time as other
+    //updates; an insert that overlaps it may or may not survive.
+    public void makeEmpty() {
+        for (int level = MAX_LEVEL - 1; level >= 0; level--)
+            NEXT.setVolatile(head.next, level, new Link<>(tail, false));
+    }
+
+    //This method returns a weakly consistent iterator over the items in ascending
+    //order. It never throws ConcurrentModificationException; it sees every item
+    //that is present for the whole iteration, and may or may not see items that
+    //are inserted or removed while it runs.
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            //next is the next node to return, or tail.
+            private Node<T> next = advance(head);
+
+            //Checks if there is a next item.
+            @Override
+            public boolean hasNext() {
+                return next != tail;
+            }
+
+            //This method returns the next item.
+            @Override
+            public T next() {
+                if (next == tail)
+                    throw new NoSuchElementException();
+                T key = next.key;
+                next = advance(next);
+                return key;
+            }
+        };
+    }
+
+    //This method returns the first unmarked node after node on level 0, or tail.
+    private Node<T> advance(Node<T> node) {
+        Node<T> curr = getNext(node, 0).node;
+        while (curr != tail && getNext(curr, 0).marked)
+            curr = getNext(curr, 0).node;
+        return curr;
+    }
+
+    //This method fills preds and succs with the nodes just before and at or after x
+    //on every level in use, unlinking any marked nodes on the way. It returns true
+    //if an unmarked node equal to x is present.
+    private boolean find(T x, Node<T>[] preds, Node<T>[] succs) {
+        retry:
+        while (true) {
+            Node<T> pred = head;
+            Node<T> curr = null;
+            for (int level = levels.get() - 1; level >= 0; level--) {
+                curr = getNext(pred, level).node;
+                while (true) {
+                    Link<T> link = getNext(curr, level);
+                    while (link.marked) {
+                        //curr is being removed: unlink it, or start over if pred changed.
+                        if (!casNext(pred, level, curr, link.node))
+                            continue retry;
+                        curr = link.node;
+                        link = getNext(curr, level);
+                    }
+                    if (less(curr, x)) {
+                        pred = curr;
+                        curr = link.node;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return curr != tail && curr.key.compareTo(x) == 0;
+        }
+    }
+
+    //This method raises levels to at least height.
+    private void raiseLevels(int height) {
+        int current = levels.get();
+        while (current < height && !levels.compareAndSet(current, height))
+            current = levels.get();
+    }
+
+    //This method checks if node comes before x. tail comes after everything.
+    private boolean less(Node<T> node, T x) {
+        return node != tail && node.key.compareTo(x) < 0;
+    }
+
+    //This method reads node.next[level].
+    @SuppressWarnings("unchecked")
+    private static <T> Link<T> getNext(Node<T> node, int level) {
+        return (Link<T>) NEXT.getVolatile(node.next, level);
+    }
+
+    //This method points pred's link on level at update, if it still points at
+    //expect and is unmarked.
+    private static <T> boolean casNext(Node<T> pred, int level, Node<T> expect, Node<T> update) {
+        Link<T> link = getNext(pred, level);
+        return link.node == expect && !link.marked
+                && NEXT.compareAndSet(pred.next, level, link, new Link<>(update, false));
+    }
+
+    //This method creates an array for the nodes of a search path.
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodeArray(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+
+    //This method picks a tower height: 1 with probability 1/2, 2 with 1/4, and so on.
+    private static int randomLevel() {
+        int r = ThreadLocalRandom.current().nextInt();
+        int level = Integer.numberOfTrailingZeros(r) + 1;
+        return Math.min(level, MAX_LEVEL);
+    }
+
+    //A node holds an item and its tower of links.
+    private static final class Node<T> {
+        final T key;
+        final Link<T>[] next;
+
+        @SuppressWarnings("unchecked")
+        Node(T key, int height) {
+            this.key = key;
+            this.next = (Link<T>[]) new Link<?>[height];
+        }
+    }
+
+    //A link is an immutable pair of a successor and the mark of the node that
+    //owns it. Replacing the whole pair in one CAS changes both together.
+    private static final class Link<T> {
+        final Node<T> node;
+        final boolean marked;
+
+        Link(Node<T> node, boolean marked) {
+            this.node = node;
+            this.marked = marked;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/**********************************************************************
+ * @file LongAvlTree.java
+ * @brief This program implements the LongAvlTree class, an AVL tree of
+ * primitive long keys. It is the long version of IntAvlTree, for keys
+ * that do not fit in an int, such as Volcano.getSortKey(), which packs
+ * the elevation and the volcano number into one long.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+// LongAvlTree class
+//
+// CONSTRUCTION: with no initializer
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// void remove( x )       --> Remove x
+// boolean contains( x )  --> Return true if x is present
+// long findMin( )        --> Return smallest item
+// long findMax( )        --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// void printTree( )      --> Print tree in sorted order
+// ******************ERRORS********************************
+// Throws UnderflowException as appropriate
+
+/**
+ * Implements an AVL tree of long keys.
+ */
+public class LongAvlTree {
+
+    /**
+     * Construct the tree.
+     */
+    public LongAvlTree() {
+        root = null;
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(long x) {
+        root = insert(x, root);
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     *
+     * @param x the item to remove.
+     */
+    public void remove(long x) {
+        root = remove(x, root);
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return smallest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public long findMin() {
+        if (isEmpty())
+            throw new UnderflowException();
+        return findMin(root).element;
+    }
+
+    /**
+     * Find the largest item in the tree.
+     *
+     * @return the largest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public long findMax() {
+        if (isEmpty())
+            throw new UnderflowException();
+        return findMax(root).element;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains(long x) {
+        LongAvlNode t = root;
+        while (t != null) {
+            if (x < t.element)
+                t = t.left;
+            else if (x > t.element)
+                t = t.right;
+            else
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Make the tree logically empty.
+     */
+    public void makeEmpty() {
+        root = null;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree() {
+        if (isEmpty())
+            System.out.println("Empty tree");
+        else
+            printTree(root);
+    }
+
+    public void checkBalance() {
+        checkBalance(root);
+    }
+
+    private static final int ALLOWED_IMBALANCE = 1;
+
+    /**
+     * Internal method to insert into a subtree.
+     *
+     * @param x the item to insert.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private LongAvlNode insert(long x, LongAvlNode t) {
+        if (t == null)
+            return new LongAvlNode(x);
+
+        if (x < t.element)
+            t.left = insert(x, t.left);
+        else if (x > t.element)
+            t.right = insert(x, t.right);
+        else
+            return t;  // Duplicate; do nothing
+        return balance(t);
+    }
+
+    /**
+     * Internal method to remove from a subtree.
+     *
+     * @param x the item to remove.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private LongAvlNode remove(long x, LongAvlNode t) {
+        if (t == null)
+            return null;   // Item not found; do nothing
+
+        if (x < t.element)
+            t.left = remove(x, t.left);
+        else if (x > t.element)
+            t.right = remove(x, t.right);
+        else if (t.left != null && t.right != null) {
+            //Two children: replace with the largest item in the left subtree.
+            t.element = findMax(t.left).element;
+            t.left = remove(t.element, t.left);
+        } else
+            return (t.left != null) ? t.left : t.right;
+        return balance(t);
+    }
+
+    // Assume t is either balanced or within one of being balanced
+    private LongAvlNode balance(LongAvlNode t) {
+        if (height(t.left) - height(t.right) > ALLOWED_IMBALANCE) {
+            if (height(t.left.left) >= height(t.left.right))
+                t = rotateWithLeftChild(t);
+            else
+                t = doubleWithLeftChild(t);
+        } else if (height(t.right) - height(t.left) > ALLOWED_IMBALANCE) {
+            if (height(t.right.right) >= height(t.right.left))
+                t = rotateWithRightChild(t);
+            else
+                t = doubleWithRightChild(t);
+        }
+        t.height = Math.max(height(t.left), height(t.right)) + 1;
+        return t;
+    }
+
+    private int checkBalance(LongAvlNode t) {
+        if (t == null)
+            return -1;
+
+        int hl = checkBalance(t.left);
+        int hr = checkBalance(t.right);
+        if (Math.abs(height(t.left) - height(t.right)) > 1 ||
+                height(t.left) != hl || height(t.right) != hr)
+            System.out.println("OOPS!!");
+
+        return height(t);
+    }
+
+    /**
+     * Internal method to find the smallest item in a subtree.
+     *
+     * @param t the node that roots the tree.
+     * @return node containing the smallest item.
+     */
+    private LongAvlNode findMin(LongAvlNode t) {
+        while (t.left != null)
+            t = t.left;
+        return t;
+    }
+
+    /**
+     * Internal method to find the largest item in a subtree.
+     *
+     * @param t the node that roots the tree.
+     * @return node containing the largest item.
+     */
+    private LongAvlNode findMax(LongAvlNode t) {
+        while (t.right != null)
+            t = t.right;
+        return t;
+    }
+
+    /**
+     * Internal method to print a subtree in (sorted) order.
+     *
+     * @param t the node that roots the tree.
+     */
+    private void printTree(LongAvlNode t) {
+        if (t == null)
+            return;
+        printTree(t.left);
+        System.out.println(t.element);
+        printTree(t.right);
+    }
+
+    /**
+     * Return the height of node t, or -1, if null.
+     */
+    private int height(LongAvlNode t) {
+        return t == null ? -1 : t.height;
+    }
+
+    /**
+     * Rotate binary tree node with left child.
+     * For AVL trees, this is a single rotation for case 1.
+     * Update heights, then return new root.
+     */
+    private LongAvlNode rotateWithLeftChild(LongAvlNode k2) {
+        LongAvlNode k1 = k2.left;
+        k2.left = k1.right;
+        k1.right = k2;
+        k2.height = Math.max(height(k2.left), height(k2.right)) + 1;
+        k1.height = Math.max(height(k1.left), k2.height) + 1;
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     * For AVL trees, this is a single rotation for case 4.
+     * Update heights, then return new root.
+     */
+    private LongAvlNode rotateWithRightChild(LongAvlNode k1) {
+        LongAvlNode k2 = k1.right;
+        k1.right = k2.left;
+        k2.left = k1;
+        k1.height = Math.max(height(k1.left), height(k1.right)) + 1;
+        k2.height = Math.max(height(k2.right), k1.height) + 1;
+        return k2;
+    }
+
+    /**
+     * Double rotate binary tree node: first left child
+     * with its right child; then node k3 with new left child.
+     * For AVL trees, this is a double rotation for case 2.
+     * Update heights, then return new root.
+     */
+    private LongAvlNode doubleWithLeftChild(LongAvlNode k3) {
+        k3.left = rotateWithRightChild(k3.left);
+        return rotateWithLeftChild(k3);
+    }
+
+    /**
+     * Double rotate binary tree node: first right child
+     * with its left child; then node k1 with new right child.
+     * For AVL trees, this is a double rotation for case 3.
+     * Update heights, then return new root.
+     */
+    private LongAvlNode doubleWithRightChild(LongAvlNode k1) {
+        k1.right = rotateWithLeftChild(k1.right);
+        return rotateWithRightChild(k1);
+    }
+
+    private static class LongAvlNode {
+        // Constructors
+        LongAvlNode(long theElement) {
+            element = theElement;
+            left = null;
+            right = null;
+            height = 0;
+        }
+
+        long element;         // The key in the node
+        LongAvlNode left;      // Left child
+        LongAvlNode right;     // Right child
+        int height;           // Height
+    }
+
+    /**
+     * The tree root.
+     */
+    private LongAvlNode root;
+}
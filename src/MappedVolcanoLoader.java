@@ -0,0 +1,161 @@
+/**********************************************************************
+ * @file MappedVolcanoLoader.java
+ * @brief This program implements the MappedVolcanoLoader class, which loads
+ * the dataset on several threads. The file is split into line-aligned
+ * chunks, each chunk is memory-mapped with FileChannel.map and parsed by
+ * its own VolcanoCsvReader on a ForkJoinPool, and the chunks' records are
+ * joined back together in file order. Chunks are cut at line breaks, so a
+ * quoted field must not contain a line break (none in the dataset do).
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class MappedVolcanoLoader {
+    //The default number of bytes in each chunk.
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    //This method loads up to numLines records on the common ForkJoinPool.
+    public static ArrayList<Volcano> load(String fileName, int numLines) throws IOException {
+        return load(fileName, numLines, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    //This method loads up to numLines records from the dataset file, which has a
+    //header line, parsing chunks of about chunkSize bytes in parallel on pool.
+    //The chunks are parsed in file order, one chunk per worker at a time, and no
+    //more are parsed once the ones done so far hold numLines records.
+    public static ArrayList<Volcano> load(String fileName, int numLines, ForkJoinPool pool, int chunkSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            //The records start after the header line.
+            long[] bounds = chunkBounds(channel, chunkSize);
+            int chunks = bounds.length - 1;
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ArrayList<Volcano>[] results = new ArrayList[chunks];
+            int batch = Math.max(1, pool.getParallelism());
+            int parsed = 0;
+            int total = 0;
+            while (parsed < chunks && total < numLines) {
+                int end = Math.min(chunks, parsed + batch);
+                try {
+                    pool.invoke(new ChunkTask(channel, bounds, results, parsed, end));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                for (int i = parsed; i < end; i++)
+                    total += results[i].size();
+                parsed = end;
+            }
+
+            //Join the chunks in file order, stopping after numLines records.
+            ArrayList<Volcano> volcanoList = new ArrayList<>(Math.min(total, Math.max(numLines, 0)));
+            for (int i = 0; i < parsed && volcanoList.size() < numLines; i++) {
+                ArrayList<Volcano> r = results[i];
+                int take = Math.min(r.size(), numLines - volcanoList.size());
+                volcanoList.addAll(take == r.size() ? r : r.subList(0, take));
+            }
+            return volcanoList;
+        }
+    }
+
+    //This method returns the byte offsets where the chunks begin, followed by the
+    //file size. The first chunk begins after the header line and every other one
+    //begins right after a '\n', so no record is split between two chunks.
+    static long[] chunkBounds(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        ArrayList<Long> bounds = new ArrayList<>();
+        long start = nextLine(channel, 0, size);
+        bounds.add(start);
+        while (start < size) {
+            long next = start + chunkSize >= size ? size : nextLine(channel, start + chunkSize, size);
+            bounds.add(next);
+            start = next;
+        }
+        if (bounds.size() == 1)
+            bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    //This method returns the offset just past the first '\n' at or after from, or
+    //size if there is none.
+    private static long nextLine(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4096);
+        long at = from;
+        while (at < size) {
+            b.clear();
+            int n = channel.read(b, at);
+            if (n <= 0)
+                break;
+            for (int i = 0; i < n; i++) {
+                if (b.get(i) == '\n')
+                    return at + i + 1;
+            }
+            at += n;
+        }
+        return size;
+    }
+
+    //This method maps the bytes from start to end, decodes them and parses the records.
+    static ArrayList<Volcano> parseChunk(FileChannel channel, long start, long end) throws IOException {
+        ArrayList<Volcano> volcanoList = new ArrayList<>();
+        if (end <= start)
+            return volcanoList;
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+        VolcanoCsvReader reader = new VolcanoCsvReader(chars);
+        while (reader.hasNext())
+            volcanoList.add(reader.next());
+        return volcanoList;
+    }
+
+    //This class parses the chunks from lo (inclusive) to hi (exclusive), splitting
+    //the range in half until each task has one chunk.
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final ArrayList<Volcano>[] results;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(FileChannel channel, long[] bounds, ArrayList<Volcano>[] results, int lo, int hi) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.results = results;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        //Parse one chunk, or fork the two halves of the range.
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                try {
+                    results[lo] = parseChunk(channel, bounds[lo], bounds[lo + 1]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ChunkTask(channel, bounds, results, lo, mid),
+                    new ChunkTask(channel, bounds, results, mid, hi));
+        }
+    }
+}
@@ -11,6 +11,8 @@ public class Node<T extends Comparable<T>> implements BinNode<T>{
     //The node can have left and right nodes.
     private Node<T> right;
     private Node<T> left;
+    //The priority is only used by a BST in treap mode.
+    private int priority;
 
     //This is the default constructor.
     public Node() {
@@ -57,6 +59,16 @@ public class Node<T extends Comparable<T>> implements BinNode<T>{
         return right;
     }
 
+    //This method sets the priority.
+    public void setPriority(int p) {
+        priority = p;
+    }
+
+    //This method gets the priority.
+    public int getPriority() {
+        return priority;
+    }
+
     //This method gets the value.
     public T getElement() {
         return value;
@@ -2,27 +2,31 @@
  * @file Proj2.java
  * @brief This program implements the Proj2 class which reads the input data
  * file and writes to an output file the times for BST and AVL Tree operations
- * based on unsorted and randomized arraylists.
+ * based on unsorted and randomized arraylists. Other SortedIndex engines
+ * registered in IndexEngines can be timed with --engines.
  * @author Wynne Greene
  * @date: October 24, 2024
  ***********************************************************************/
 
 import javax.xml.datatype.DatatypeConstants;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.Array;
 import java.util.ArrayList;
-import java.util.Scanner;
 import java.util.Collections;
+import java.util.Random;
 
 
 public class Proj2 {
+    //The command line usage message.
+    static final String USAGE = "Usage: java Proj2 <input file> <number of lines> [--mmap] [--bulk] [--engines=<name>,...] [--fanout=<n>] [--remove] [--zipf=<s>]\n"
+            + "Engines: " + String.join(",", IndexEngines.names());
+
     public static void main(String[] args) throws IOException {
         // Use command line arguments to specify the input file
-        if (args.length != 2) {
-            System.err.println("Usage: java TestAvl <input file> <number of lines>");
+        if (args.length < 2) {
+            System.err.println(USAGE);
             System.exit(1);
         }
         //C:\Users\wynne\IdeaProjects\project-2-greewa23-1\src\volcanoes_around_the_world_in_2021.csv
@@ -31,73 +35,51 @@ public class Proj2 {
         //from the second argument.
         String inputFileName = args[0];
         int numLines = Integer.parseInt(args[1]);
-
-        // For file input
-        FileInputStream inputFileNameStream = null;
-        Scanner inputFileNameScanner = null;
-
-        // Open the input file
-        inputFileNameStream = new FileInputStream(inputFileName);
-        inputFileNameScanner = new Scanner(inputFileNameStream);
-
-        // ignore first line
-        inputFileNameScanner.nextLine();
-
-	    // FINISH ME
-        //Create an arraylist to store the data of each element.
-        ArrayList<Volcano> volcanoList = new ArrayList<Volcano>();
-        int count = 0; //count keeps track of the line count.
-        //Traverse numLines.
-        while (count < numLines) {//inputFileNameScanner.hasNext()) {
-            //Scan in the line.
-            String line = inputFileNameScanner.nextLine();
-            String[] parts = line.split(","); // split the string into multiple parts
-
-            Volcano v; //Store the data in v.
-            //Condition for exceptions
-            if (parts.length != 11) {
-                //String[] command = {line};
-                //data stores the values of each variable.
-                ArrayList<String> data = new ArrayList<>();
-                //s is updated with entries that need to be combined.
-                String s = "";
-                for (int i = 0; i < parts.length; i++) {
-                    //System.out.println("in");
-                    //System.out.println(data);
-                    if (parts[i].indexOf("\"") != -1) {
-                        s += parts[i];
-                        i++;
-                        //Loop until the last quote is found.
-                        while (i < parts.length) {
-                            s += "," + parts[i];
-                            if (parts[i].indexOf("\"") != -1) {
-                                break;
-                            }
-                            i++;
-                        }
-                        data.add(s);
-                    } else {
-                        data.add(parts[i]);
-                    }
-                    //System.out.println(data);
-                }
-                //Update v with the data.
-                v = new Volcano(data.get(0), data.get(1), data.get(2), data.get(3), data.get(4),
-                        Double.parseDouble(data.get(5)), Double.parseDouble(data.get(6)), Integer.parseInt(data.get(7)), data.get(8), data.get(9), data.get(10));
+        //The remaining arguments are options.
+        boolean mmap = false;
+        boolean bulk = false;
+        boolean remove = false;
+        //The Zipf exponent of the search keys, or -1 to search for every record once.
+        double zipf = -1;
+        //The engines to time. The default, BST and AVL Tree, gives the original row format.
+        String[] engines = {"bst", "avl"};
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--mmap")) {
+                mmap = true;
+            } else if (args[i].equals("--bulk")) {
+                bulk = true;
+            } else if (args[i].equals("--remove")) {
+                remove = true;
+            } else if (args[i].startsWith("--engines=")) {
+                engines = args[i].substring("--engines=".length()).split(",");
+            } else if (args[i].startsWith("--zipf=")) {
+                zipf = Double.parseDouble(args[i].substring("--zipf=".length()));
+            } else if (args[i].startsWith("--fanout=")) {
+                //Replace the btree engine with one of the given fanout.
+                int fanout = Integer.parseInt(args[i].substring("--fanout=".length()));
+                IndexEngines.register("btree", () -> new BPlusTree<>(fanout), null);
+            } else {
+                System.err.println(USAGE);
+                System.exit(1);
             }
-            else {
-                //Update v with the data from the array.
-                v = new Volcano(parts[0], parts[1], parts[2], parts[3], parts[4],
-                        Double.parseDouble(parts[5]), Double.parseDouble(parts[6]), Integer.parseInt(parts[7]), parts[8], parts[9], parts[10]);
+        }
+        //Check that every engine name is registered.
+        for (String engine : engines) {
+            if (!IndexEngines.exists(engine)) {
+                System.err.println("Unknown engine: " + engine);
+                System.err.println(USAGE);
+                System.exit(1);
             }
-            volcanoList.add(v); // add the data onto the ArrayList
-            count++;
         }
-        inputFileNameStream.close();
+
+        //Read the first numLines records of the dataset. With --mmap the file is
+        //memory-mapped and its chunks are parsed in parallel.
+        ArrayList<Volcano> volcanoList = mmap ? MappedVolcanoLoader.load(inputFileName, numLines)
+                : readVolcanoes(inputFileName, numLines);
 
         /*
-        Insert each element of the sorted and randomized ArrayLists into BST
-        and AVL Trees. In total, there will be four trees.
+        Insert each element of the sorted and randomized ArrayLists into every
+        engine. With the default engines there will be four trees.
          */
         //The try block attempts to open the file and write to it. The catch block catches any exceptions.
         FileWriter out = null;
@@ -106,90 +88,82 @@ public class Proj2 {
             out = new FileWriter("output.txt", true);
 
             //Store the data from the original matrix.
-            ArrayList<Volcano> orgList = new ArrayList<>();
-            for(int i = 0; i<volcanoList.size(); i++) {
-                orgList.add(volcanoList.get(i));
-            }
+            ArrayList<Volcano> orgList = new ArrayList<>(volcanoList);
 
             //Sort the arraylist and add the elements to sorted.
             Collections.sort(volcanoList);
-            ArrayList<Volcano> sorted = new ArrayList<>();
-            for(int i = 0; i<volcanoList.size(); i++) {
-                sorted.add(volcanoList.get(i));
-            }
-
+            ArrayList<Volcano> sorted = new ArrayList<>(volcanoList);
 
             //Shuffle the arraylist.
             Collections.shuffle(volcanoList);
-            //Create objects to store each of the four trees.
-            BST<Volcano> mySortedBST = new BST<>();
-            AvlTree<Volcano> mySortedAVL = new AvlTree<>();
-            BST<Volcano> myShuffledBST = new BST<>();
-            AvlTree<Volcano> myShuffledAVL = new AvlTree<>();
-            //out.write("Line Number, Sorted Insert, Sorted Search, Unsorted Insert, Unsorted Search\n");
 
             //Check for error in number of lines.
             if(numLines > volcanoList.size() || numLines<0) {
-                System.err.println("Usage: java TestAvl <number of lines>");
+                System.err.println(USAGE);
                 System.exit(1);
             }
-            /*
-            For each of the trees, insert elements from the sorted or randomized arraylists
-            and keep track of how many ns each operation takes.
-             */
-            //Sorted insert into BST and AVL
-            long start1 = System.nanoTime();
-            for(int i = 0; i<sorted.size(); i++) {
-                mySortedBST.insert(sorted.get(i));
-            }
-            long end1 = System.nanoTime()-start1;
-            long start2 = System.nanoTime();
-            for(int i = 0; i<sorted.size(); i++) {
-                mySortedAVL.insert(sorted.get(i));
-            }
-            long end2 = System.nanoTime()-start2;
 
-            //Unsorted insert into BST and AVL
-            long start3 = System.nanoTime();
-            for(int i = 0; i<volcanoList.size(); i++) {
-                myShuffledBST.insert(volcanoList.get(i));
+            //The search keys: every record in file order, or with --zipf, the same
+            //number of keys drawn so that a few popular records take most lookups.
+            ArrayList<Volcano> queries = orgList;
+            if(zipf >= 0) {
+                queries = zipfQueries(orgList, zipf);
             }
-            long end3 = System.nanoTime()-start3;
-            long start4 = System.nanoTime();
-            for(int i = 0; i<volcanoList.size(); i++) {
-                myShuffledAVL.insert(volcanoList.get(i));
-            }
-            long end4 = System.nanoTime()-start4;
 
-            //Sorted search of BST and AVL
-            long startSearch = System.nanoTime();
-            for(int i = 0; i<orgList.size(); i++) {
-                mySortedBST.search(orgList.get(i));
-            }
-            long endSearch = System.nanoTime()-startSearch;
-            long startSearch2 = System.nanoTime();
-            for(int i = 0; i<orgList.size(); i++) {
-                mySortedAVL.contains(orgList.get(i));
+            /*
+            For each engine, insert elements from the sorted or randomized arraylists,
+            then search for every element of the original arraylist, and keep track
+            of how many ns each operation takes.
+             */
+            int n = engines.length;
+            long[] sortedInsert = new long[n];
+            long[] shuffledInsert = new long[n];
+            long[] sortedSearch = new long[n];
+            long[] shuffledSearch = new long[n];
+            long[] sortedRemove = new long[n];
+            long[] shuffledRemove = new long[n];
+            for(int e = 0; e<n; e++) {
+                //Sorted insert. With --bulk, engines that have a bulk loader (BST and
+                //AVL Tree) are built from the sorted list in linear time instead.
+                SortedIndex<Volcano> mySorted;
+                long start = System.nanoTime();
+                if(bulk && IndexEngines.hasBulkLoader(engines[e])) {
+                    mySorted = IndexEngines.buildFromSorted(engines[e], sorted);
+                }
+                else {
+                    mySorted = IndexEngines.create(engines[e]);
+                    insertAll(mySorted, sorted);
+                }
+                sortedInsert[e] = System.nanoTime()-start;
+
+                //Unsorted insert.
+                SortedIndex<Volcano> myShuffled = IndexEngines.create(engines[e]);
+                start = System.nanoTime();
+                insertAll(myShuffled, volcanoList);
+                shuffledInsert[e] = System.nanoTime()-start;
+
+                //Sorted and unsorted search.
+                sortedSearch[e] = timeSearch(mySorted, queries);
+                shuffledSearch[e] = timeSearch(myShuffled, queries);
+
+                //Sorted and unsorted remove, which empty both indexes.
+                if(remove) {
+                    sortedRemove[e] = timeRemove(mySorted, orgList);
+                    shuffledRemove[e] = timeRemove(myShuffled, orgList);
+                }
             }
-            long endSearch2 = System.nanoTime()-startSearch2;
 
-            //Unsorted search of BST and AVL
-            long startSearch3 = System.nanoTime();
-            for(int i = 0; i<orgList.size(); i++) {
-                myShuffledBST.search(orgList.get(i));
-            }
-            long endSearch3 = System.nanoTime()-startSearch3;
-            long startSearch4 = System.nanoTime();
-            for(int i = 0; i<orgList.size(); i++) {
-                myShuffledAVL.contains(orgList.get(i));
+            //The number of lines, then the sorted inserts, unsorted inserts, sorted
+            //searches and unsorted searches, one column per engine in each group.
+            //With --remove, the sorted and unsorted removes follow.
+            String row = numLines + join(sortedInsert) + join(shuffledInsert) + join(sortedSearch) + join(shuffledSearch);
+            if(remove) {
+                row += join(sortedRemove) + join(shuffledRemove);
             }
-            long endSearch4 = System.nanoTime()-startSearch4;
-
-            //Write the number of lines and the time it takes to complete each operation for each tree.
-            out.write(numLines + "," + end1 + "," + end2 + "," + end3 + "," + end4 + "," + endSearch + "," + endSearch2 + ","
-                     + endSearch3 + "," + endSearch4 + "\n");
-	System.out.println(numLines + "," + end1 + "," + end2 + "," + end3 + "," + end4 + "," + endSearch + "," + endSearch2 + ","+ endSearch3 + "," + endSearch4);
 
+            //Write the row to the file and the screen.
+            out.write(row + "\n");
+            System.out.println(row);
         }
         catch(Exception e) {
             System.out.println(e.getMessage());
@@ -199,4 +173,71 @@ public class Proj2 {
             out.close();
         }
     }
+
+    //This method inserts every element of list into index.
+    static void insertAll(SortedIndex<Volcano> index, ArrayList<Volcano> list) {
+        for(int i = 0; i<list.size(); i++) {
+            index.insert(list.get(i));
+        }
+    }
+
+    //This method searches index for every element of list and returns how many ns it took.
+    static long timeSearch(SortedIndex<Volcano> index, ArrayList<Volcano> list) {
+        long start = System.nanoTime();
+        for(int i = 0; i<list.size(); i++) {
+            index.search(list.get(i));
+        }
+        return System.nanoTime()-start;
+    }
+
+    //This method returns list.size() keys drawn from list with a Zipf distribution
+    //of exponent s. Which records are popular is picked by a fixed-seed shuffle, so
+    //every run and every engine sees the same keys. An empty list has no keys to draw.
+    static ArrayList<Volcano> zipfQueries(ArrayList<Volcano> list, double s) {
+        if(list.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Random rand = new Random(42);
+        ArrayList<Volcano> byPopularity = new ArrayList<>(list);
+        Collections.shuffle(byPopularity, rand);
+        ZipfGenerator zipf = new ZipfGenerator(list.size(), s, rand);
+        ArrayList<Volcano> queries = new ArrayList<>(list.size());
+        for(int i = 0; i<list.size(); i++) {
+            queries.add(byPopularity.get(zipf.next()));
+        }
+        return queries;
+    }
+
+    //This method removes every element of list from index and returns how many ns it took.
+    static long timeRemove(SortedIndex<Volcano> index, ArrayList<Volcano> list) {
+        long start = System.nanoTime();
+        for(int i = 0; i<list.size(); i++) {
+            index.remove(list.get(i));
+        }
+        return System.nanoTime()-start;
+    }
+
+    //This method returns the times as CSV columns, each preceded by a comma.
+    static String join(long[] times) {
+        StringBuilder sb = new StringBuilder();
+        for(long t : times) {
+            sb.append(',').append(t);
+        }
+        return sb.toString();
+    }
+
+    //This method reads up to numLines records from the dataset file into an arraylist.
+    //It is shared by main and the JMH benchmarks in bench/. VolcanoCsvReader scans
+    //each row once, handling quoted fields like "Diables, Morne aux" itself.
+    public static ArrayList<Volcano> readVolcanoes(String inputFileName, int numLines) throws IOException {
+        //Create an arraylist to store the data of each element.
+        ArrayList<Volcano> volcanoList = new ArrayList<Volcano>();
+        try (VolcanoCsvReader reader = VolcanoCsvReader.open(inputFileName)) {
+            //Read numLines records, or fewer if the file ends first.
+            while (volcanoList.size() < numLines && reader.hasNext()) {
+                volcanoList.add(reader.next()); // add the data onto the ArrayList
+            }
+        }
+        return volcanoList;
+    }
 }
@@ -0,0 +1,439 @@
+/**********************************************************************
+ * @file RedBlackTree.java
+ * @brief This program implements the RedBlackTree class, a drop-in
+ * alternative to AvlTree with looser balance. Every node is red or black,
+ * no red node has a red child, and every path down from a node passes the
+ * same number of black nodes, which keeps the height under 2 log n. An
+ * insert does at most two rotations and a remove at most three; the rest
+ * of the fix-up is recoloring, and it stops as soon as the tree is valid
+ * again instead of revisiting every ancestor the way AvlTree.balance does.
+ * It follows Cormen et al., "Introduction to Algorithms", ch. 13, with a
+ * parent pointer in every node and a shared black sentinel for null.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+// RedBlackTree class
+//
+// CONSTRUCTION: with no initializer
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// Comparable remove( x ) --> Remove x; return the removed item, or null
+// boolean contains( x )  --> Return true if x is present
+// Comparable search( x ) --> Return the item equal to x, or null
+// Comparable findMin( )  --> Return smallest item
+// Comparable findMax( )  --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// void printTree( )      --> Print tree in sorted order
+// ******************ERRORS********************************
+// Throws UnderflowException as appropriate
+
+/**
+ * Implements a red-black tree.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public class RedBlackTree<AnyType extends Comparable<? super AnyType>> implements SortedIndex<AnyType> {
+
+    /**
+     * Construct the tree.
+     */
+    public RedBlackTree() {
+        nullNode = new RedBlackNode<>(null, null, null);
+        nullNode.left = nullNode.right = nullNode.parent = nullNode;
+        root = nullNode;
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        RedBlackNode<AnyType> parent = nullNode;
+        RedBlackNode<AnyType> t = root;
+        int compareResult = 0;
+        while (t != nullNode) {
+            parent = t;
+            compareResult = x.compareTo(t.element);
+            if (compareResult < 0)
+                t = t.left;
+            else if (compareResult > 0)
+                t = t.right;
+            else
+                return;  // Duplicate; do nothing
+        }
+
+        RedBlackNode<AnyType> z = new RedBlackNode<>(x, nullNode, nullNode);
+        z.parent = parent;
+        z.color = RED;
+        if (parent == nullNode)
+            root = z;
+        else if (compareResult < 0)
+            parent.left = z;
+        else
+            parent.right = z;
+        insertFixup(z);
+    }
+
+    /**
+     * Remove from the tree.
+     *
+     * @param x the item to remove.
+     * @return the item that was removed, or null if x was not found.
+     */
+    public AnyType remove(AnyType x) {
+        RedBlackNode<AnyType> z = find(x);
+        if (z == nullNode)
+            return null;   // Item not found; do nothing
+
+        //y is the node that leaves its place in the tree: z itself, or z's
+        //successor when z has two children. child moves up into y's place.
+        RedBlackNode<AnyType> y = z;
+        boolean removedColor = y.color;
+        RedBlackNode<AnyType> child;
+        if (z.left == nullNode) {
+            child = z.right;
+            transplant(z, z.right);
+        } else if (z.right == nullNode) {
+            child = z.left;
+            transplant(z, z.left);
+        } else {
+            y = z.right;
+            while (y.left != nullNode)
+                y = y.left;
+            removedColor = y.color;
+            child = y.right;
+            if (y.parent == z) {
+                child.parent = y;
+            } else {
+                transplant(y, y.right);
+                y.right = z.right;
+                y.right.parent = y;
+            }
+            transplant(z, y);
+            y.left = z.left;
+            y.left.parent = y;
+            y.color = z.color;
+        }
+        //Removing a black node shortens its paths by one black node.
+        if (removedColor == BLACK)
+            removeFixup(child);
+        nullNode.parent = nullNode;
+        return z.element;
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return smallest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMin() {
+        if (isEmpty())
+            throw new UnderflowException();
+        RedBlackNode<AnyType> t = root;
+        while (t.left != nullNode)
+            t = t.left;
+        return t.element;
+    }
+
+    /**
+     * Find the largest item in the tree.
+     *
+     * @return the largest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMax() {
+        if (isEmpty())
+            throw new UnderflowException();
+        RedBlackNode<AnyType> t = root;
+        while (t.right != nullNode)
+            t = t.right;
+        return t.element;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains(AnyType x) {
+        return find(x) != nullNode;
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return the matching item in the tree, or null if x is not found.
+     */
+    public AnyType search(AnyType x) {
+        return find(x).element;
+    }
+
+    /**
+     * Make the tree logically empty.
+     */
+    public void makeEmpty() {
+        root = nullNode;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return root == nullNode;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree() {
+        if (isEmpty())
+            System.out.println("Empty tree");
+        else
+            printTree(root);
+    }
+
+    /**
+     * Check the red-black invariants, printing "OOPS!!" if any fails.
+     */
+    public void checkBalance() {
+        if (root.color != BLACK || root.parent != nullNode || nullNode.color != BLACK)
+            System.out.println("OOPS!!");
+        checkBalance(root);
+    }
+
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+
+    /**
+     * Internal method to find the node holding x.
+     *
+     * @return the node, or nullNode if x is not found.
+     */
+    private RedBlackNode<AnyType> find(AnyType x) {
+        RedBlackNode<AnyType> t = root;
+        while (t != nullNode) {
+            int compareResult = x.compareTo(t.element);
+            if (compareResult < 0)
+                t = t.left;
+            else if (compareResult > 0)
+                t = t.right;
+            else
+                return t;    // Match
+        }
+        return nullNode;   // No match
+    }
+
+    /**
+     * Internal method to restore the invariants after the red node z was
+     * added. While z's parent is red, either recolor and move the problem up
+     * two levels, or rotate once or twice and stop.
+     */
+    private void insertFixup(RedBlackNode<AnyType> z) {
+        while (z.parent.color == RED) {
+            RedBlackNode<AnyType> grandparent = z.parent.parent;
+            if (z.parent == grandparent.left) {
+                RedBlackNode<AnyType> uncle = grandparent.right;
+                if (uncle.color == RED) {
+                    z.parent.color = BLACK;
+                    uncle.color = BLACK;
+                    grandparent.color = RED;
+                    z = grandparent;
+                } else {
+                    if (z == z.parent.right) {
+                        z = z.parent;
+                        rotateLeft(z);
+                    }
+                    z.parent.color = BLACK;
+                    grandparent.color = RED;
+                    rotateRight(grandparent);
+                }
+            } else {
+                RedBlackNode<AnyType> uncle = grandparent.left;
+                if (uncle.color == RED) {
+                    z.parent.color = BLACK;
+                    uncle.color = BLACK;
+                    grandparent.color = RED;
+                    z = grandparent;
+                } else {
+                    if (z == z.parent.left) {
+                        z = z.parent;
+                        rotateRight(z);
+                    }
+                    z.parent.color = BLACK;
+                    grandparent.color = RED;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    /**
+     * Internal method to restore the invariants after a black node was
+     * removed above x, leaving x's paths one black node short. While x is
+     * black, either recolor its sibling and move the problem up, or rotate
+     * at most three times and stop.
+     */
+    private void removeFixup(RedBlackNode<AnyType> x) {
+        while (x != root && x.color == BLACK) {
+            if (x == x.parent.left) {
+                RedBlackNode<AnyType> w = x.parent.right;
+                if (w.color == RED) {
+                    w.color = BLACK;
+                    x.parent.color = RED;
+                    rotateLeft(x.parent);
+                    w = x.parent.right;
+                }
+                if (w.left.color == BLACK && w.right.color == BLACK) {
+                    w.color = RED;
+                    x = x.parent;
+                } else {
+                    if (w.right.color == BLACK) {
+                        w.left.color = BLACK;
+                        w.color = RED;
+                        rotateRight(w);
+                        w = x.parent.right;
+                    }
+                    w.color = x.parent.color;
+                    x.parent.color = BLACK;
+                    w.right.color = BLACK;
+                    rotateLeft(x.parent);
+                    x = root;
+                }
+            } else {
+                RedBlackNode<AnyType> w = x.parent.left;
+                if (w.color == RED) {
+                    w.color = BLACK;
+                    x.parent.color = RED;
+                    rotateRight(x.parent);
+                    w = x.parent.left;
+                }
+                if (w.right.color == BLACK && w.left.color == BLACK) {
+                    w.color = RED;
+                    x = x.parent;
+                } else {
+                    if (w.left.color == BLACK) {
+                        w.right.color = BLACK;
+                        w.color = RED;
+                        rotateLeft(w);
+                        w = x.parent.left;
+                    }
+                    w.color = x.parent.color;
+                    x.parent.color = BLACK;
+                    w.left.color = BLACK;
+                    rotateRight(x.parent);
+                    x = root;
+                }
+            }
+        }
+        x.color = BLACK;
+    }
+
+    /**
+     * Internal method to put subtree v in the place of subtree u.
+     */
+    private void transplant(RedBlackNode<AnyType> u, RedBlackNode<AnyType> v) {
+        if (u.parent == nullNode)
+            root = v;
+        else if (u == u.parent.left)
+            u.parent.left = v;
+        else
+            u.parent.right = v;
+        v.parent = u.parent;
+    }
+
+    /**
+     * Rotate node x with its right child.
+     */
+    private void rotateLeft(RedBlackNode<AnyType> x) {
+        RedBlackNode<AnyType> y = x.right;
+        x.right = y.left;
+        if (y.left != nullNode)
+            y.left.parent = x;
+        transplant(x, y);
+        y.left = x;
+        x.parent = y;
+    }
+
+    /**
+     * Rotate node x with its left child.
+     */
+    private void rotateRight(RedBlackNode<AnyType> x) {
+        RedBlackNode<AnyType> y = x.left;
+        x.left = y.right;
+        if (y.right != nullNode)
+            y.right.parent = x;
+        transplant(x, y);
+        y.right = x;
+        x.parent = y;
+    }
+
+    /**
+     * Internal method to check a subtree.
+     *
+     * @return the number of black nodes on every path down from t.
+     */
+    private int checkBalance(RedBlackNode<AnyType> t) {
+        if (t == nullNode)
+            return 1;
+
+        if ((t.left != nullNode && (t.left.parent != t || t.left.element.compareTo(t.element) >= 0))
+                || (t.right != nullNode && (t.right.parent != t || t.right.element.compareTo(t.element) <= 0))
+                || (t.color == RED && (t.left.color == RED || t.right.color == RED)))
+            System.out.println("OOPS!!");
+        int bl = checkBalance(t.left);
+        int br = checkBalance(t.right);
+        if (bl != br)
+            System.out.println("OOPS!!");
+        return bl + (t.color == BLACK ? 1 : 0);
+    }
+
+    /**
+     * Internal method to print a subtree in sorted order.
+     *
+     * @param t the node that roots the tree.
+     */
+    private void printTree(RedBlackNode<AnyType> t) {
+        if (t != nullNode) {
+            printTree(t.left);
+            System.out.println(t.element);
+            printTree(t.right);
+        }
+    }
+
+    private static class RedBlackNode<AnyType> {
+        // Constructors
+        RedBlackNode(AnyType theElement, RedBlackNode<AnyType> lt, RedBlackNode<AnyType> rt) {
+            element = theElement;
+            left = lt;
+            right = rt;
+            color = BLACK;
+        }
+
+        AnyType element;              // The data in the node
+        RedBlackNode<AnyType> left;   // Left child
+        RedBlackNode<AnyType> right;  // Right child
+        RedBlackNode<AnyType> parent; // Parent, or nullNode at the root
+        boolean color;                // RED or BLACK
+    }
+
+    /**
+     * The tree root, or nullNode if the tree is empty.
+     */
+    private RedBlackNode<AnyType> root;
+
+    /**
+     * The black sentinel that stands for every null child. When it moves up
+     * into a removed node's place its parent is set, so removeFixup can climb
+     * from it; remove resets the parent afterwards.
+     */
+    private final RedBlackNode<AnyType> nullNode;
+}
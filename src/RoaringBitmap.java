@@ -0,0 +1,405 @@
+/**********************************************************************
+ * @file RoaringBitmap.java
+ * @brief This program implements the RoaringBitmap class, a compressed
+ * set of non-negative ints such as row ids, after Lemire et al.'s Roaring
+ * bitmaps. The values are split into chunks of 65536 by their high 16
+ * bits, and each chunk is a container of the low 16 bits: a sorted char
+ * array while it holds at most 4096 values, and a 1024-word bitmap (8 KB)
+ * once it holds more. Sparse sets cost 2 bytes a value and dense ones 1
+ * bit a value, and and(), or() and andNot() work a container at a time,
+ * skipping chunks that only one side has. The operations return new
+ * bitmaps and leave their arguments unchanged.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.util.Arrays;
+
+public class RoaringBitmap {
+    //The most values a container keeps as an array before it becomes a bitmap.
+    //At 4096 values both take 8 KB.
+    private static final int ARRAY_MAX = 4096;
+
+    //keys[i] is the high 16 bits of every value in containers[i], ascending.
+    private char[] keys;
+    private Container[] containers;
+    //size is the number of containers; none of them is empty.
+    private int size;
+
+    //The constructor creates an empty bitmap.
+    public RoaringBitmap() {
+        keys = new char[4];
+        containers = new Container[4];
+        size = 0;
+    }
+
+    //This method returns a bitmap of every value from start up to but not
+    //including end.
+    public static RoaringBitmap range(int start, int end) {
+        RoaringBitmap b = new RoaringBitmap();
+        for (int value = start; value < end; ) {
+            int key = value >>> 16;
+            int last = Math.min(end - 1, (key << 16) | 0xffff);
+            b.append((char) key, Container.range(value & 0xffff, last & 0xffff));
+            value = last + 1;
+        }
+        return b;
+    }
+
+    //This method adds x, which must not be negative.
+    public void add(int x) {
+        if (x < 0)
+            throw new IllegalArgumentException("negative value " + x);
+        char key = (char) (x >>> 16);
+        int i = findKey(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new Container());
+        }
+        containers[i].add((char) x);
+    }
+
+    //This method checks if x is in the bitmap.
+    public boolean contains(int x) {
+        if (x < 0)
+            return false;
+        int i = findKey((char) (x >>> 16));
+        return i >= 0 && containers[i].contains((char) x);
+    }
+
+    //This method returns the number of values in the bitmap.
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < size; i++)
+            count += containers[i].cardinality;
+        return count;
+    }
+
+    //This method checks if the bitmap is empty.
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //This method returns the values in ascending order.
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < size; i++)
+            n = containers[i].copyTo(values, n, keys[i] << 16);
+        return values;
+    }
+
+    //This method returns a copy of the bitmap.
+    public RoaringBitmap copy() {
+        RoaringBitmap b = new RoaringBitmap();
+        for (int i = 0; i < size; i++)
+            b.append(keys[i], containers[i].copy());
+        return b;
+    }
+
+    //This method returns the values in both a and b.
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.append(a.keys[i], Container.and(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    //This method returns the values in a, b or both.
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], Container.or(a.containers[i], b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    //This method returns the values in a but not in b.
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i])
+                j++;
+            if (j < b.size && b.keys[j] == a.keys[i])
+                result.append(a.keys[i], Container.andNot(a.containers[i], b.containers[j]));
+            else
+                result.append(a.keys[i], a.containers[i].copy());
+        }
+        return result;
+    }
+
+    //This method returns the index of key in keys, or -(insertion point) - 1.
+    private int findKey(char key) {
+        //Rows are usually added in ascending order, so check the last key first.
+        if (size > 0 && keys[size - 1] == key)
+            return size - 1;
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key)
+                lo = mid + 1;
+            else if (keys[mid] > key)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -(lo + 1);
+    }
+
+    //This method puts container c for key at index i.
+    private void insertContainer(int i, char key, Container c) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        size++;
+    }
+
+    //This method adds container c for a key above every key so far, unless c
+    //is null (an empty result).
+    private void append(char key, Container c) {
+        if (c != null)
+            insertContainer(size, key, c);
+    }
+
+    //A container holds the low 16 bits of the values in one chunk, in array
+    //while there are at most ARRAY_MAX of them and in bits after that.
+    private static final class Container {
+        char[] array;
+        long[] bits;
+        int cardinality;
+
+        //The constructor creates an empty array container.
+        Container() {
+            array = new char[4];
+        }
+
+        //This method returns a container of every value from first to last.
+        static Container range(int first, int last) {
+            Container c = new Container();
+            int count = last - first + 1;
+            if (count <= ARRAY_MAX) {
+                c.array = new char[count];
+                for (int i = 0; i < count; i++)
+                    c.array[i] = (char) (first + i);
+            } else {
+                c.array = null;
+                c.bits = new long[1024];
+                for (int v = first; v <= last; v++)
+                    c.bits[v >>> 6] |= 1L << v;
+            }
+            c.cardinality = count;
+            return c;
+        }
+
+        //This method adds low, switching to a bitmap when the array is full.
+        void add(char low) {
+            if (bits == null) {
+                int i = Arrays.binarySearch(array, 0, cardinality, low);
+                if (i >= 0)
+                    return;
+                if (cardinality < ARRAY_MAX) {
+                    i = -i - 1;
+                    if (cardinality == array.length)
+                        array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality * 2));
+                    System.arraycopy(array, i, array, i + 1, cardinality - i);
+                    array[i] = low;
+                    cardinality++;
+                    return;
+                }
+                bits = toBits();
+                array = null;
+            }
+            long bit = 1L << low;
+            if ((bits[low >>> 6] & bit) == 0) {
+                bits[low >>> 6] |= bit;
+                cardinality++;
+            }
+        }
+
+        //This method checks if low is in the container.
+        boolean contains(char low) {
+            if (bits != null)
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        //This method returns the container's values as a new 1024-word bitmap.
+        long[] toBits() {
+            if (bits != null)
+                return bits.clone();
+            long[] words = new long[1024];
+            for (int i = 0; i < cardinality; i++)
+                words[array[i] >>> 6] |= 1L << array[i];
+            return words;
+        }
+
+        //This method writes high | value for each value into out from index n,
+        //and returns the index after the last one written.
+        int copyTo(int[] out, int n, int high) {
+            if (bits == null) {
+                for (int i = 0; i < cardinality; i++)
+                    out[n++] = high | array[i];
+            } else {
+                for (int w = 0; w < 1024; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1)
+                        out[n++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return n;
+        }
+
+        //This method returns a copy of the container.
+        Container copy() {
+            Container c = new Container();
+            c.array = array == null ? null : Arrays.copyOf(array, cardinality);
+            c.bits = bits == null ? null : bits.clone();
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        //This method returns a container of the values in a bitmap, as an array
+        //if it has few enough, or null if it is empty.
+        static Container fromBits(long[] words) {
+            int count = 0;
+            for (long word : words)
+                count += Long.bitCount(word);
+            if (count == 0)
+                return null;
+            Container c = new Container();
+            c.cardinality = count;
+            if (count <= ARRAY_MAX) {
+                c.array = new char[count];
+                int n = 0;
+                for (int w = 0; w < 1024; w++) {
+                    for (long word = words[w]; word != 0; word &= word - 1)
+                        c.array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                }
+            } else {
+                c.array = null;
+                c.bits = words;
+            }
+            return c;
+        }
+
+        //This method returns a container of the values in array[0, count), or
+        //null if count is 0.
+        static Container fromArray(char[] array, int count) {
+            if (count == 0)
+                return null;
+            Container c = new Container();
+            c.array = array;
+            c.cardinality = count;
+            return c;
+        }
+
+        //This method returns the values in both a and b, or null if there are none.
+        static Container and(Container a, Container b) {
+            if (a.bits != null && b.bits != null) {
+                long[] words = new long[1024];
+                for (int w = 0; w < 1024; w++)
+                    words[w] = a.bits[w] & b.bits[w];
+                return fromBits(words);
+            }
+            //Probe the other container with each value of an array container,
+            //the smaller one when both are arrays.
+            Container small;
+            if (a.bits != null)
+                small = b;
+            else if (b.bits != null)
+                small = a;
+            else
+                small = a.cardinality <= b.cardinality ? a : b;
+            Container other = small == a ? b : a;
+            char[] found = new char[small.cardinality];
+            int n = 0;
+            for (int i = 0; i < small.cardinality; i++) {
+                if (other.contains(small.array[i]))
+                    found[n++] = small.array[i];
+            }
+            return fromArray(found, n);
+        }
+
+        //This method returns the values in a, b or both.
+        static Container or(Container a, Container b) {
+            if (a.bits == null && b.bits == null && a.cardinality + b.cardinality <= ARRAY_MAX) {
+                //Merge the two sorted arrays.
+                char[] merged = new char[a.cardinality + b.cardinality];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (i < a.cardinality || j < b.cardinality) {
+                    if (j == b.cardinality || (i < a.cardinality && a.array[i] < b.array[j]))
+                        merged[n++] = a.array[i++];
+                    else if (i == a.cardinality || a.array[i] > b.array[j])
+                        merged[n++] = b.array[j++];
+                    else {
+                        merged[n++] = a.array[i++];
+                        j++;
+                    }
+                }
+                return fromArray(merged, n);
+            }
+            long[] words = a.toBits();
+            if (b.bits != null) {
+                for (int w = 0; w < 1024; w++)
+                    words[w] |= b.bits[w];
+            } else {
+                for (int i = 0; i < b.cardinality; i++)
+                    words[b.array[i] >>> 6] |= 1L << b.array[i];
+            }
+            return fromBits(words);
+        }
+
+        //This method returns the values in a but not in b, or null if there are none.
+        static Container andNot(Container a, Container b) {
+            if (a.bits == null) {
+                char[] found = new char[a.cardinality];
+                int n = 0;
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (!b.contains(a.array[i]))
+                        found[n++] = a.array[i];
+                }
+                return fromArray(found, n);
+            }
+            long[] words = a.bits.clone();
+            if (b.bits != null) {
+                for (int w = 0; w < 1024; w++)
+                    words[w] &= ~b.bits[w];
+            } else {
+                for (int i = 0; i < b.cardinality; i++)
+                    words[b.array[i] >>> 6] &= ~(1L << b.array[i]);
+            }
+            return fromBits(words);
+        }
+    }
+}
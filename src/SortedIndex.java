@@ -0,0 +1,37 @@
+/**********************************************************************
+ * @file SortedIndex.java
+ * @brief This program implements the SortedIndex interface, the operations
+ * shared by every ordered index engine (BST, AvlTree, ArrayAvlTree,
+ * ConcurrentAvlTree, LockFreeSkipList, ...). Proj2 times its workloads
+ * through this interface, and IndexEngines creates engines by name, so a
+ * new engine only has to implement SortedIndex and register itself.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+public interface SortedIndex<T extends Comparable<? super T>> {
+    //Insert x. Engines that keep a set ignore an item equal to one already present.
+    public void insert(T x);
+
+    //Return the item equal to x, or null if there is none.
+    public T search(T x);
+
+    //Remove an item equal to x and return it, or return null if there is none.
+    public T remove(T x);
+
+    //Return the smallest item. Throws UnderflowException if the index is empty.
+    public T findMin();
+
+    //Return the largest item. Throws UnderflowException if the index is empty.
+    public T findMax();
+
+    //Check if the index is empty.
+    public boolean isEmpty();
+
+    //Remove every item.
+    public void makeEmpty();
+
+    //Check if an item equal to x is present.
+    public default boolean contains(T x) {
+        return search(x) != null;
+    }
+}
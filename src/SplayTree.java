@@ -0,0 +1,318 @@
+/**********************************************************************
+ * @file SplayTree.java
+ * @brief This program implements the SplayTree class, a self-adjusting
+ * binary search tree with the same operations as AvlTree. Every search,
+ * insert and remove splays the item it touched to the root, so keys that
+ * are looked up often stay near the top and repeated lookups of them cost
+ * only a few comparisons. Any sequence of operations costs O(log n)
+ * amortized each, and under skewed lookups the cost follows the entropy of
+ * the access distribution instead of log n. It is the top-down splay tree
+ * of Weiss, "Data Structures and Algorithm Analysis in Java", ch. 12.
+ * Because search changes the tree, even readers must not share it between
+ * threads without a lock.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+// SplayTree class
+//
+// CONSTRUCTION: with no initializer
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// Comparable remove( x ) --> Remove x; return the removed item, or null
+// boolean contains( x )  --> Return true if x is present
+// Comparable search( x ) --> Return the item equal to x, or null
+// Comparable findMin( )  --> Return smallest item
+// Comparable findMax( )  --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// void printTree( )      --> Print tree in sorted order
+// ******************ERRORS********************************
+// Throws UnderflowException as appropriate
+
+import java.util.ArrayDeque;
+
+/**
+ * Implements a top-down splay tree.
+ * Note that all "matching" is based on the compareTo method.
+ */
+public class SplayTree<AnyType extends Comparable<? super AnyType>> implements SortedIndex<AnyType> {
+
+    /**
+     * Construct the tree.
+     */
+    public SplayTree() {
+        nullNode = new BinaryNode<>(null);
+        nullNode.left = nullNode.right = nullNode;
+        header = new BinaryNode<>(null);
+        root = nullNode;
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored. x ends up at the root.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        if (root == nullNode) {
+            root = new BinaryNode<>(x, nullNode, nullNode);
+            return;
+        }
+
+        root = splay(x, root);
+        int compareResult = x.compareTo(root.element);
+        if (compareResult < 0) {
+            root = new BinaryNode<>(x, root.left, root);
+            root.right.left = nullNode;
+        } else if (compareResult > 0) {
+            root = new BinaryNode<>(x, root, root.right);
+            root.left.right = nullNode;
+        }
+        // Otherwise x is a duplicate; do nothing
+    }
+
+    /**
+     * Remove from the tree.
+     *
+     * @param x the item to remove.
+     * @return the item that was removed, or null if x was not found.
+     */
+    public AnyType remove(AnyType x) {
+        if (search(x) == null)
+            return null;   // Item not found; do nothing
+
+        //search splayed x to the root. Splaying x again in the left subtree
+        //brings its largest item up, which has no right child.
+        AnyType removed = root.element;
+        BinaryNode<AnyType> newTree;
+        if (root.left == nullNode) {
+            newTree = root.right;
+        } else {
+            newTree = splay(x, root.left);
+            newTree.right = root.right;
+        }
+        root = newTree;
+        return removed;
+    }
+
+    /**
+     * Find the smallest item in the tree. The tree is not changed.
+     *
+     * @return smallest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMin() {
+        if (isEmpty())
+            throw new UnderflowException();
+        BinaryNode<AnyType> t = root;
+        while (t.left != nullNode)
+            t = t.left;
+        return t.element;
+    }
+
+    /**
+     * Find the largest item in the tree. The tree is not changed.
+     *
+     * @return the largest item.
+     * @throws UnderflowException if the tree is empty.
+     */
+    public AnyType findMax() {
+        if (isEmpty())
+            throw new UnderflowException();
+        BinaryNode<AnyType> t = root;
+        while (t.right != nullNode)
+            t = t.right;
+        return t.element;
+    }
+
+    /**
+     * Find an item in the tree, splaying it (or the last item reached) to the root.
+     *
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains(AnyType x) {
+        return search(x) != null;
+    }
+
+    /**
+     * Find an item in the tree, splaying it (or the last item reached) to the root.
+     *
+     * @param x the item to search for.
+     * @return the matching item in the tree, or null if x is not found.
+     */
+    public AnyType search(AnyType x) {
+        if (isEmpty())
+            return null;
+        root = splay(x, root);
+        return root.element.compareTo(x) == 0 ? root.element : null;
+    }
+
+    /**
+     * Make the tree logically empty.
+     */
+    public void makeEmpty() {
+        root = nullNode;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return root == nullNode;
+    }
+
+    /**
+     * Print the tree contents in sorted order.
+     */
+    public void printTree() {
+        if (isEmpty()) {
+            System.out.println("Empty tree");
+            return;
+        }
+        ArrayDeque<BinaryNode<AnyType>> path = new ArrayDeque<>();
+        BinaryNode<AnyType> t = root;
+        while (t != nullNode || !path.isEmpty()) {
+            while (t != nullNode) {
+                path.push(t);
+                t = t.left;
+            }
+            t = path.pop();
+            System.out.println(t.element);
+            t = t.right;
+        }
+    }
+
+    /**
+     * Check that the items are in search tree order, printing "OOPS!!" if not.
+     */
+    public void checkOrder() {
+        checkOrder(root);
+    }
+
+    /**
+     * Internal method to perform a top-down splay. The last node accessed
+     * becomes the new root.
+     *
+     * @param x the target item to splay around.
+     * @param t the root of the subtree to splay.
+     * @return the subtree after the splay.
+     */
+    private BinaryNode<AnyType> splay(AnyType x, BinaryNode<AnyType> t) {
+        BinaryNode<AnyType> leftTreeMax, rightTreeMin;
+
+        header.left = header.right = nullNode;
+        leftTreeMax = rightTreeMin = header;
+
+        nullNode.element = x;   // Guarantee a match
+
+        for (; ; ) {
+            int compareResult = x.compareTo(t.element);
+            if (compareResult < 0) {
+                if (x.compareTo(t.left.element) < 0)
+                    t = rotateWithLeftChild(t);
+                if (t.left == nullNode)
+                    break;
+                // Link Right
+                rightTreeMin.left = t;
+                rightTreeMin = t;
+                t = t.left;
+            } else if (compareResult > 0) {
+                if (x.compareTo(t.right.element) > 0)
+                    t = rotateWithRightChild(t);
+                if (t.right == nullNode)
+                    break;
+                // Link Left
+                leftTreeMax.right = t;
+                leftTreeMax = t;
+                t = t.right;
+            } else
+                break;
+        }
+
+        leftTreeMax.right = t.left;
+        rightTreeMin.left = t.right;
+        t.left = header.right;
+        t.right = header.left;
+        nullNode.element = null;  // Do not keep x reachable
+        return t;
+    }
+
+    /**
+     * Rotate binary tree node with left child.
+     */
+    private BinaryNode<AnyType> rotateWithLeftChild(BinaryNode<AnyType> k2) {
+        BinaryNode<AnyType> k1 = k2.left;
+        k2.left = k1.right;
+        k1.right = k2;
+        return k1;
+    }
+
+    /**
+     * Rotate binary tree node with right child.
+     */
+    private BinaryNode<AnyType> rotateWithRightChild(BinaryNode<AnyType> k1) {
+        BinaryNode<AnyType> k2 = k1.right;
+        k1.right = k2.left;
+        k2.left = k1;
+        return k2;
+    }
+
+    /**
+     * Internal method to check that an in-order walk of a subtree is strictly
+     * increasing. A splay tree can be a path n nodes long, so the walk keeps
+     * its own stack instead of recursing.
+     */
+    private void checkOrder(BinaryNode<AnyType> t) {
+        ArrayDeque<BinaryNode<AnyType>> path = new ArrayDeque<>();
+        AnyType prev = null;
+        while (t != nullNode || !path.isEmpty()) {
+            while (t != nullNode) {
+                path.push(t);
+                t = t.left;
+            }
+            t = path.pop();
+            if (prev != null && prev.compareTo(t.element) >= 0)
+                System.out.println("OOPS!!");
+            prev = t.element;
+            t = t.right;
+        }
+    }
+
+    // Basic node stored in splay trees
+    private static class BinaryNode<AnyType> {
+        // Constructors
+        BinaryNode(AnyType theElement) {
+            this(theElement, null, null);
+        }
+
+        BinaryNode(AnyType theElement, BinaryNode<AnyType> lt, BinaryNode<AnyType> rt) {
+            element = theElement;
+            left = lt;
+            right = rt;
+        }
+
+        AnyType element;            // The data in the node
+        BinaryNode<AnyType> left;   // Left child
+        BinaryNode<AnyType> right;  // Right child
+    }
+
+    /**
+     * The tree root, or nullNode if the tree is empty.
+     */
+    private BinaryNode<AnyType> root;
+
+    /**
+     * The sentinel that stands for every null child. splay stores the target
+     * in it, so every search path ends in a match.
+     */
+    private final BinaryNode<AnyType> nullNode;
+
+    /**
+     * The scratch node splay hangs its left and right trees from.
+     */
+    private final BinaryNode<AnyType> header;
+}
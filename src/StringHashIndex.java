@@ -0,0 +1,144 @@
+/**********************************************************************
+ * @file StringHashIndex.java
+ * @brief This program implements the StringHashIndex class, a map from
+ * String keys to values kept in an open-addressing hash table with linear
+ * probing, the same layout as StringPool. Keys and values sit in two
+ * parallel arrays, so a lookup hashes once and walks a short run of
+ * adjacent slots instead of following chained entries. Removing a key
+ * shifts the rest of its run back into the gap, so the table never fills
+ * up with deleted markers. VolcanoCatalog uses it for its secondary
+ * indexes. A StringHashIndex is not thread-safe.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+public class StringHashIndex<V> {
+    //keys is the open-addressing table; a null key marks an empty slot.
+    private String[] keys;
+    //values[i] is the value for keys[i].
+    private Object[] values;
+    //size is the number of keys in the table.
+    private int size;
+
+    //The constructor creates an empty index.
+    public StringHashIndex() {
+        keys = new String[16];
+        values = new Object[16];
+        size = 0;
+    }
+
+    //This method returns the value for key, or null if key is not present.
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    //This method checks if key is present.
+    public boolean containsKey(String key) {
+        return find(key) >= 0;
+    }
+
+    //This method sets the value for key and returns the value it replaces, or
+    //null if key was not present.
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        int mask = keys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        //Probe until the key or an empty slot is found.
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        //Keep the table at most half full.
+        if (size * 2 > keys.length)
+            grow();
+        return null;
+    }
+
+    //This method removes key and returns its value, or null if key was not present.
+    @SuppressWarnings("unchecked")
+    public V remove(String key) {
+        int slot = find(key);
+        if (slot < 0)
+            return null;
+        V old = (V) values[slot];
+        size--;
+
+        //Move later keys of the run back into the gap when their home slot is
+        //at or before it, so every key stays reachable from its home slot.
+        int mask = keys.length - 1;
+        int gap = slot;
+        int i = (gap + 1) & mask;
+        while (keys[i] != null) {
+            int home = spread(keys[i].hashCode()) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[gap] = null;
+        values[gap] = null;
+        return old;
+    }
+
+    //This method returns the number of keys.
+    public int size() {
+        return size;
+    }
+
+    //This method checks if the index is empty.
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //This method removes every key.
+    public void clear() {
+        keys = new String[16];
+        values = new Object[16];
+        size = 0;
+    }
+
+    //This method returns the slot holding key, or -1 if key is not present.
+    private int find(String key) {
+        int mask = keys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    //This method mixes the high bits of h into the low bits used for the slot.
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    //This method doubles the table and re-inserts every key.
+    private void grow() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = spread(oldKeys[i].hashCode()) & mask;
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**********************************************************************
+ * @file StringPool.java
+ * @brief This program implements the StringPool class. A StringPool hands
+ * out one shared String for each distinct run of chars it is given, so a
+ * column with only a few dozen distinct values (region, country, type,
+ * status) costs a few dozen Strings no matter how many rows are read.
+ * Lookups compare chars in place and only allocate when a value is seen
+ * for the first time. A pool is not thread-safe; each reader owns one.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+public class StringPool {
+    //table is an open-addressing hash table of the pooled Strings.
+    private String[] table;
+    //size is the number of Strings in the pool.
+    private int size;
+
+    //The constructor creates an empty pool.
+    public StringPool() {
+        table = new String[64];
+        size = 0;
+    }
+
+    //This method returns the pooled String equal to chars[off, off + len),
+    //adding it to the pool if it is not there yet.
+    public String intern(char[] chars, int off, int len) {
+        //Hash the chars the same way String.hashCode() does.
+        int h = 0;
+        for (int i = 0; i < len; i++)
+            h = 31 * h + chars[off + i];
+        int mask = table.length - 1;
+        int slot = spread(h) & mask;
+        //Probe until the String or an empty slot is found.
+        while (true) {
+            String s = table[slot];
+            if (s == null)
+                break;
+            if (s.hashCode() == h && matches(s, chars, off, len))
+                return s;
+            slot = (slot + 1) & mask;
+        }
+        String s = new String(chars, off, len);
+        table[slot] = s;
+        size++;
+        //Keep the table at most half full.
+        if (size * 2 > table.length)
+            grow();
+        return s;
+    }
+
+    //This method returns the number of distinct Strings in the pool.
+    public int size() {
+        return size;
+    }
+
+    //This method checks if s has exactly the chars chars[off, off + len).
+    private static boolean matches(String s, char[] chars, int off, int len) {
+        if (s.length() != len)
+            return false;
+        for (int i = 0; i < len; i++) {
+            if (s.charAt(i) != chars[off + i])
+                return false;
+        }
+        return true;
+    }
+
+    //This method mixes the high bits of h into the low bits used for the slot.
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    //This method doubles the table and re-inserts every String.
+    private void grow() {
+        String[] old = table;
+        table = new String[old.length * 2];
+        int mask = table.length - 1;
+        for (String s : old) {
+            if (s == null)
+                continue;
+            int slot = spread(s.hashCode()) & mask;
+            while (table[slot] != null)
+                slot = (slot + 1) & mask;
+            table[slot] = s;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestAvlRank {
+    // Test program for the AvlTree order statistics: size, rank, select and
+    // countInRange, checked against a TreeSet through inserts, removes,
+    // split, join and union
+    public static void main( String [ ] args ) {
+        AvlTree<Integer> t = new AvlTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rand = new Random(17);
+
+        System.out.println("Checking... (no more output means success)");
+
+        for (int round = 0; round < 100000; round++) {
+            int x = rand.nextInt(20000);
+            if (rand.nextInt(3) > 0) {
+                t.insert(x);
+                expected.add(x);
+            } else {
+                t.remove(x);
+                expected.remove(x);
+            }
+        }
+        t.checkBalance();
+        check(t, expected, rand);
+
+        // split and join put the sizes back together
+        AvlTree<Integer> greater = t.split(10000);
+        expected.remove(10000);
+        if (t.size() != expected.headSet(10000).size() || greater.size() != expected.tailSet(10000).size())
+            System.out.println("Split size error!");
+        t.join(10000, greater);
+        expected.add(10000);
+        t.checkBalance();
+        check(t, expected, rand);
+
+        // union with a tree of the odd numbers
+        ArrayList<Integer> odds = new ArrayList<>();
+        for (int i = 1; i < 40000; i += 2)
+            odds.add(i);
+        t.union(AvlTree.buildFromSorted(odds));
+        expected.addAll(odds);
+        t.checkBalance();
+        check(t, expected, rand);
+    }
+
+    // Checks every order statistic of t against expected.
+    static void check(AvlTree<Integer> t, TreeSet<Integer> expected, Random rand) {
+        if (t.size() != expected.size())
+            System.out.println("Size error!");
+        int k = 0;
+        for (int x : expected) {
+            if (t.select(k) != x || t.rank(x) != k)
+                System.out.println("Select or rank error!");
+            k++;
+        }
+        for (int i = 0; i < 1000; i++) {
+            int lo = rand.nextInt(45000) - 1000;
+            int hi = lo + rand.nextInt(5000);
+            if (t.rank(lo) != expected.headSet(lo).size()
+                    || t.countInRange(lo, hi) != expected.subSet(lo, true, hi, true).size())
+                System.out.println("Range count error!");
+        }
+        if (t.countInRange(5, 4) != 0)
+            System.out.println("Empty range error!");
+        try {
+            t.select(t.size());
+            System.out.println("Select range error!");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestAvlRemove {
+    // Test program for AvlTree insert and remove, checking the balance after
+    // every operation. (TestAvl only checks the balance when NUMS < SMALL.)
+    public static void main( String [ ] args ) {
+        AvlTree<Integer> t = new AvlTree<>();
+        final int NUMS = 100000;  // must be even
+
+        System.out.println("Checking... (no more output means success)");
+
+        // sorted inserts, then removing the lower half, rotates at every level
+        for (int i = 0; i < NUMS; i++)
+            t.insert(i);
+        t.checkBalance();
+        for (int i = 0; i < NUMS / 2; i++)
+            if (t.remove(i) != i)
+                System.out.println("Remove error!");
+        t.checkBalance();
+        if (t.findMin() != NUMS / 2 || t.findMax() != NUMS - 1)
+            System.out.println("FindMin or FindMax error!");
+
+        // random inserts and removes against a TreeSet
+        Random rand = new Random(17);
+        t.makeEmpty();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 20000; round++) {
+            int x = rand.nextInt(2000);
+            if (rand.nextBoolean()) {
+                t.insert(x);
+                expected.add(x);
+            } else if ((t.remove(x) != null) != expected.remove(x)) {
+                System.out.println("Random remove error!");
+            }
+            t.checkBalance();
+        }
+        for (int x = 0; x < 2000; x++)
+            if (t.contains(x) != expected.contains(x))
+                System.out.println("Random find error!");
+    }
+}
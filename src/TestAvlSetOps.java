@@ -0,0 +1,82 @@
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestAvlSetOps {
+    // Test program for split, join, union, intersection and difference
+    public static void main( String [ ] args ) {
+        final int NUMS = 200000;
+        Random rand = new Random(201);
+
+        System.out.println("Checking... (no more output means success)");
+
+        // builds random trees of very different sizes, so the join-based
+        // operations take both the parallel and the sequential paths
+        int[][] sizes = { {NUMS, NUMS}, {NUMS, 1000}, {50, NUMS}, {0, 100}, {100, 0} };
+        for (int[] size : sizes) {
+            for (int op = 0; op < 3; op++) {
+                AvlTree<Integer> a = new AvlTree<>();
+                AvlTree<Integer> b = new AvlTree<>();
+                TreeSet<Integer> expected = new TreeSet<>();
+                TreeSet<Integer> other = new TreeSet<>();
+                for (int i = 0; i < size[0]; i++) {
+                    int x = rand.nextInt(2 * NUMS);
+                    a.insert(x);
+                    expected.add(x);
+                }
+                for (int i = 0; i < size[1]; i++) {
+                    int x = rand.nextInt(2 * NUMS);
+                    b.insert(x);
+                    other.add(x);
+                }
+
+                if (op == 0) {
+                    a.union(b);
+                    expected.addAll(other);
+                } else if (op == 1) {
+                    a.intersection(b);
+                    expected.retainAll(other);
+                } else {
+                    a.difference(b);
+                    expected.removeAll(other);
+                }
+
+                // the result must be balanced and hold exactly the expected items
+                a.checkBalance();
+                if (!b.isEmpty())
+                    System.out.println("Operand not emptied!");
+                for (int x = 0; x < 2 * NUMS; x++)
+                    if (a.contains(x) != expected.contains(x))
+                        System.out.println("Set operation " + op + " error at " + x + "!");
+            }
+        }
+
+        // splits around a present and a missing item, then joins back together
+        AvlTree<Integer> t = new AvlTree<>();
+        for (int i = 0; i < NUMS; i += 2)
+            t.insert(i);
+        AvlTree<Integer> greater = t.split(NUMS / 2);
+        t.checkBalance();
+        greater.checkBalance();
+        if (t.findMax() != NUMS / 2 - 2 || greater.findMin() != NUMS / 2 + 2)
+            System.out.println("Split error!");
+        t.join(NUMS / 2, greater);
+        t.checkBalance();
+        for (int i = 0; i < NUMS; i++)
+            if (t.contains(i) != (i % 2 == 0))
+                System.out.println("Join error!");
+        greater = t.split(NUMS + 1);
+        if (!greater.isEmpty() || t.findMax() != NUMS - 2)
+            System.out.println("Split error2!");
+
+        // join rejects items that are out of order
+        try {
+            AvlTree<Integer> high = new AvlTree<>();
+            high.insert(1);
+            t.join(NUMS, high);
+            System.out.println("Join order error!");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class TestAvlStream {
+    // Test program for the AvlTree iterator, Spliterator and streams, checked
+    // against a TreeSet, then an aggregation over volcanoes in parallel
+    public static void main( String [ ] args ) {
+        AvlTree<Integer> t = new AvlTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rand = new Random(25);
+
+        System.out.println("Checking... (no more output means success)");
+
+        for (int i = 0; i < 500000; i++) {
+            int x = rand.nextInt(2000000);
+            t.insert(x);
+            expected.add(x);
+        }
+        List<Integer> inOrder = new ArrayList<>(expected);
+
+        // the iterator and for-each loop list the items in order
+        List<Integer> seen = new ArrayList<>();
+        for (int x : t)
+            seen.add(x);
+        if (!seen.equals(inOrder))
+            System.out.println("Iterator error!");
+
+        // sequential and parallel streams see every item once, in order
+        if (!t.stream().collect(Collectors.toList()).equals(inOrder)
+                || !t.parallelStream().collect(Collectors.toList()).equals(inOrder))
+            System.out.println("Stream order error!");
+        long sum = 0;
+        for (int x : inOrder)
+            sum += x;
+        if (t.parallelStream().mapToLong(x -> x).sum() != sum || t.parallelStream().count() != t.size())
+            System.out.println("Parallel stream error!");
+
+        // every split reports the exact size of both halves, and the halves
+        // cover the items in order, part way through a walk as well
+        Spliterator<Integer> s = t.spliterator();
+        for (int i = 0; i < 1000; i++)
+            s.tryAdvance(x -> { });
+        List<Spliterator<Integer>> parts = new ArrayList<>();
+        split(s, parts, 8);
+        seen.clear();
+        for (Spliterator<Integer> part : parts) {
+            long size = part.estimateSize();
+            if (!part.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED))
+                System.out.println("Characteristics error!");
+            int before = seen.size();
+            part.forEachRemaining(seen::add);
+            if (seen.size() - before != size || part.estimateSize() != 0)
+                System.out.println("Split size error!");
+        }
+        if (!seen.equals(inOrder.subList(1000, inOrder.size())))
+            System.out.println("Split order error!");
+
+        if (new AvlTree<Integer>().stream().count() != 0 || new AvlTree<Integer>().iterator().hasNext()
+                || new AvlTree<Integer>().spliterator().trySplit() != null)
+            System.out.println("Empty stream error!");
+
+        // average elevation per country, in parallel and with a plain loop
+        String[] countries = {"Japan", "Italy", "Chile", "Indonesia", "Iceland", "Peru"};
+        AvlTree<Volcano> volcanoes = new AvlTree<>();
+        Map<String, long[]> totals = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            String country = countries[rand.nextInt(countries.length)];
+            int elevation = rand.nextInt(7000);
+            volcanoes.insert(new Volcano("", String.format("%04d-%03d", i / 100, i % 100), "", country, "",
+                    0, 0, elevation, "", "", ""));
+            long[] total = totals.computeIfAbsent(country, c -> new long[2]);
+            total[0] += elevation;
+            total[1]++;
+        }
+        Map<String, Double> averages = volcanoes.parallelStream()
+                .collect(Collectors.groupingByConcurrent(Volcano::getCountry,
+                        Collectors.averagingInt(Volcano::getElevation)));
+        for (Map.Entry<String, long[]> e : totals.entrySet())
+            if (Math.abs(averages.get(e.getKey()) - (double) e.getValue()[0] / e.getValue()[1]) > 1e-6)
+                System.out.println("Average error!");
+    }
+
+    // splits s into at most 2^depth parts, in order
+    private static void split(Spliterator<Integer> s, List<Spliterator<Integer>> parts, int depth) {
+        Spliterator<Integer> prefix = depth > 0 ? s.trySplit() : null;
+        if (prefix == null) {
+            parts.add(s);
+            return;
+        }
+        split(prefix, parts, depth - 1);
+        split(s, parts, depth - 1);
+    }
+}
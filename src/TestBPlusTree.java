@@ -0,0 +1,86 @@
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestBPlusTree {
+    // Test program for BPlusTree, the same checks as TestAvl at several fanouts,
+    // then iteration and range scans checked against a TreeSet
+    public static void main( String [ ] args ) {
+        final int NUMS = 1000000;  // must be even
+        final int GAP = 37;
+
+        System.out.println("Checking... (no more output means success)");
+
+        for (int fanout : new int[] {4, 5, 64}) {
+            BPlusTree<Integer> t = new BPlusTree<>(fanout);
+
+            // inserts sequence of numbers "GAP" apart into the tree
+            for (int i = GAP; i != 0; i = (i + GAP) % NUMS)
+                t.insert(i);
+            t.checkBalance();
+
+            // removes odd numbers
+            for (int i = 1; i < NUMS; i += 2)
+                if (t.remove(i) != i)
+                    System.out.println("Remove error!");
+            t.checkBalance();
+
+            // checks to see that the minimum value is 2 and the maximum value is NUMS - 2
+            if (t.findMin() != 2 || t.findMax() != NUMS - 2 || t.size() != NUMS / 2 - 1)
+                System.out.println("FindMin, FindMax or size error!");
+
+            // checks to see if the tree contains even numbers (it should!)
+            for (int i = 2; i < NUMS; i += 2)
+                if (!t.contains(i))
+                    System.out.println("Find error1!");
+
+            // checks to see if the tree contains odd numbers (it shouldn't!)
+            for (int i = 1; i < NUMS; i += 2)
+                if (t.contains(i))
+                    System.out.println("Find error2!");
+
+            // iterates over every item in order
+            int expected = 2;
+            for (int x : t) {
+                if (x != expected)
+                    System.out.println("Iterator error!");
+                expected += 2;
+            }
+            if (expected != NUMS)
+                System.out.println("Iterator error!");
+
+            // removes everything; the tree should shrink back to one leaf
+            for (int i = 2; i < NUMS; i += 2)
+                t.remove(i);
+            if (!t.isEmpty() || t.height() != 0 || t.iterator().hasNext())
+                System.out.println("Remove all error!");
+        }
+
+        // random inserts, removes and range scans against a TreeSet
+        Random rand = new Random(17);
+        BPlusTree<Integer> t = new BPlusTree<>(6);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 200000; round++) {
+            int x = rand.nextInt(5000);
+            if (rand.nextBoolean()) {
+                t.insert(x);
+                expected.add(x);
+            } else if ((t.remove(x) != null) != expected.remove(x)) {
+                System.out.println("Random remove error!");
+            }
+            if (round % 1000 == 0) {
+                t.checkBalance();
+                int lo = rand.nextInt(5000);
+                int hi = lo + rand.nextInt(500);
+                Iterator<Integer> it = t.rangeIterator(lo, hi);
+                for (int y : expected.subSet(lo, true, hi, true))
+                    if (!it.hasNext() || it.next() != y)
+                        System.out.println("Range error!");
+                if (it.hasNext())
+                    System.out.println("Range error!");
+            }
+        }
+        if (t.size() != expected.size())
+            System.out.println("Size error!");
+    }
+}
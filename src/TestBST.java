@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+
+public class TestBST {
+    // Test program
+    public static void main( String [ ] args ) {
+        BST<Integer> t = new BST<>();
+        // sorted inserts make the BST a linked list NUMS nodes deep, which
+        // overflowed the stack when insert/search/remove were recursive.
+        // (every insert still walks the whole list, so NUMS is kept small
+        // enough for the O(NUMS^2) insert loop to finish in a few seconds)
+        final int NUMS = 30000;  // must be even
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts sorted numbers into the BST
+        for (int i = 0; i < NUMS; i++)
+            t.insert(i);
+
+        if (t.size() != NUMS)
+            System.out.println("Size error!");
+
+        // checks to see that every number is found, deepest last
+        for (int i = 0; i < NUMS; i++)
+            if (t.search(i) == null || t.search(i) != i)
+                System.out.println("Find error1!");
+
+        // removes odd numbers, starting from the bottom of the list
+        for (int i = NUMS - 1; i > 0; i -= 2)
+            if (t.remove(i) == null)
+                System.out.println("Remove error!");
+
+        // removing a missing number returns null and leaves the size alone
+        if (t.remove(NUMS + 1) != null || t.size() != NUMS / 2)
+            System.out.println("Size error after remove!");
+
+        // checks to see if the BST contains even numbers (it should!)
+        for (int i = 0; i < NUMS; i += 2)
+            if (t.search(i) == null)
+                System.out.println("Find error2!");
+
+        // checks to see if the BST contains odd numbers (it shouldn't!)
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.search(i) != null)
+                System.out.println("Find error3!");
+
+        // removes a node with two children from a small tree
+        BST<Integer> s = new BST<>();
+        int[] keys = {50, 30, 70, 20, 40, 60, 80, 65};
+        for (int k : keys)
+            s.insert(k);
+        s.remove(50);
+        s.remove(30);
+        if (!s.toString().equals("20\n40\n60\n65\n70\n80"))
+            System.out.println("Remove order error!");
+
+        // the iterator and for-each loop list the elements in order
+        int expected = 0;
+        for (int x : t) {
+            if (x != expected)
+                System.out.println("Iterator error!");
+            expected += 2;
+        }
+        if (expected != NUMS)
+            System.out.println("Iterator length error!");
+
+        // streams over the list-shaped tree and over a balanced one, sequential
+        // and parallel, see every element once and keep the order
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++)
+            sorted.add(i);
+        BST<Integer> balanced = BST.buildFromSorted(sorted);
+        for (BST<Integer> tree : List.of(t, balanced)) {
+            List<Integer> inOrder = new ArrayList<>();
+            tree.iterator().forEachRemaining(inOrder::add);
+            if (!tree.stream().collect(Collectors.toList()).equals(inOrder)
+                    || !tree.parallelStream().collect(Collectors.toList()).equals(inOrder))
+                System.out.println("Stream order error!");
+            long sum = 0;
+            for (int x : inOrder)
+                sum += x;
+            if (tree.parallelStream().mapToLong(x -> x).sum() != sum
+                    || tree.parallelStream().count() != tree.size())
+                System.out.println("Parallel stream error!");
+        }
+        if (new BST<Integer>().stream().count() != 0 || new BST<Integer>().iterator().hasNext())
+            System.out.println("Empty stream error!");
+
+        // a long run of equal elements builds a shallow tree in linear time, and
+        // every copy can be found and removed
+        List<Integer> same = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++)
+            same.add(i < 10 ? 1 : i < 999990 ? 5 : 9);
+        BST<Integer> equal = BST.buildFromSorted(same);
+        if (equal.height() > 21 || equal.size() != same.size())
+            System.out.println("Equal build error!");
+        int removed = 0;
+        while (equal.remove(5) != null)
+            removed++;
+        if (removed != 999980 || equal.search(5) != null || equal.findMin() != 1 || equal.findMax() != 9)
+            System.out.println("Equal remove error!");
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestBitmap {
+    // Test program for RoaringBitmap and VolcanoBitmapIndex: bitmap operations
+    // against TreeSets, then random queries against a scan of the volcanoes
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        // sparse and dense sets across several chunks of 65536, so both array
+        // and bitmap containers and the changes between them are exercised
+        Random rand = new Random(3);
+        for (int round = 0; round < 40; round++) {
+            int bound = 1 << (14 + rand.nextInt(5));
+            TreeSet<Integer> sa = new TreeSet<>();
+            TreeSet<Integer> sb = new TreeSet<>();
+            RoaringBitmap a = new RoaringBitmap();
+            RoaringBitmap b = new RoaringBitmap();
+            int na = rand.nextInt(bound / 2);
+            int nb = rand.nextInt(bound / 2);
+            for (int i = 0; i < na; i++) {
+                int x = rand.nextInt(bound);
+                a.add(x);
+                sa.add(x);
+            }
+            for (int i = 0; i < nb; i++) {
+                int x = rand.nextInt(bound);
+                b.add(x);
+                sb.add(x);
+            }
+            check(a, sa, "Add error!");
+            for (int i = 0; i < 1000; i++) {
+                int x = rand.nextInt(bound);
+                if (a.contains(x) != sa.contains(x))
+                    System.out.println("Contains error!");
+            }
+
+            TreeSet<Integer> and = new TreeSet<>(sa);
+            and.retainAll(sb);
+            TreeSet<Integer> or = new TreeSet<>(sa);
+            or.addAll(sb);
+            TreeSet<Integer> andNot = new TreeSet<>(sa);
+            andNot.removeAll(sb);
+            check(RoaringBitmap.and(a, b), and, "And error!");
+            check(RoaringBitmap.or(a, b), or, "Or error!");
+            check(RoaringBitmap.andNot(a, b), andNot, "AndNot error!");
+            // the operations leave their arguments unchanged
+            check(a, sa, "Changed argument error!");
+            check(b, sb, "Changed argument error!");
+
+            int start = rand.nextInt(bound);
+            int end = start + rand.nextInt(bound);
+            TreeSet<Integer> range = new TreeSet<>();
+            for (int x = start; x < end; x++)
+                range.add(x);
+            check(RoaringBitmap.range(start, end), range, "Range error!");
+            check(RoaringBitmap.and(a, RoaringBitmap.range(start, end)), new TreeSet<>(sa.subSet(start, end)),
+                    "Range and error!");
+        }
+
+        // random volcanoes with a few values in each column
+        String[] statuses = {"Historical", "Holocene", "Fumarolic", "Radiocarbon"};
+        String[] types = {"Stratovolcano", "Shield volcano", "Caldera", "Cinder cone", "Mud volcano"};
+        String[] regions = {"West Indies", "Japan", "Iceland", "South America", "Indonesia", "Africa"};
+        String[] eruptions = {"D1", "D2", "D3", "U", "Q"};
+        ArrayList<Volcano> volcanoes = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            volcanoes.add(new Volcano(regions[rand.nextInt(regions.length)], String.format("%04d-%03d", i / 100, i % 100),
+                    "", "", "", 0, 0, rand.nextInt(7000) - 500, types[rand.nextInt(types.length)],
+                    statuses[rand.nextInt(statuses.length)], eruptions[rand.nextInt(eruptions.length)]));
+        ArrayList<Volcano> sorted = new ArrayList<>(volcanoes);
+        sorted.sort(null);
+        VolcanoBitmapIndex index = new VolcanoBitmapIndex(AvlTree.buildFromSorted(sorted));
+        if (index.size() != volcanoes.size() || index.all().cardinality() != volcanoes.size())
+            System.out.println("Size error!");
+        for (int row = 0; row < index.size(); row++)
+            if (index.volcano(row) != sorted.get(row))
+                System.out.println("Row order error!");
+
+        for (int round = 0; round < 500; round++) {
+            String type = types[rand.nextInt(types.length)];
+            String status = statuses[rand.nextInt(statuses.length)];
+            String other = statuses[rand.nextInt(statuses.length)];
+            String region = regions[rand.nextInt(regions.length)];
+            String eruption = eruptions[rand.nextInt(eruptions.length)];
+            int lo = rand.nextInt(7000) - 500;
+            int hi = lo + rand.nextInt(round % 2 == 0 ? 200 : 5000);
+
+            VolcanoBitmapIndex.Query q = index.where()
+                    .is(VolcanoBitmapIndex.Column.TYPE, type)
+                    .isAnyOf(VolcanoBitmapIndex.Column.STATUS, status, other)
+                    .isNot(VolcanoBitmapIndex.Column.REGION, region)
+                    .elevationBetween(lo, hi);
+            if (round % 3 == 0)
+                q.is(VolcanoBitmapIndex.Column.LAST_KNOWN_ERUPTION, eruption);
+            ArrayList<Volcano> expected = new ArrayList<>();
+            for (Volcano v : sorted)
+                if (v.getType().equals(type) && (v.getStatus().equals(status) || v.getStatus().equals(other))
+                        && !v.getRegion().equals(region) && v.getElevation() >= lo && v.getElevation() <= hi
+                        && (round % 3 != 0 || v.getLastKnownEruption().equals(eruption)))
+                    expected.add(v);
+            if (!q.volcanoes().equals(expected))
+                System.out.println("Query error!");
+        }
+
+        // a query with no predicates keeps every row, one with only a NOT keeps
+        // the rest, and an unknown value matches nothing
+        if (index.where().rows().cardinality() != index.size())
+            System.out.println("Empty query error!");
+        int westIndies = index.rows(VolcanoBitmapIndex.Column.REGION, "West Indies").cardinality();
+        if (index.where().isNot(VolcanoBitmapIndex.Column.REGION, "West Indies").rows().cardinality()
+                != index.size() - westIndies)
+            System.out.println("Not query error!");
+        if (!index.where().is(VolcanoBitmapIndex.Column.TYPE, "Submarine").rows().isEmpty())
+            System.out.println("Unknown value error!");
+        // the result is a copy the caller may change
+        index.where().is(VolcanoBitmapIndex.Column.REGION, "West Indies").rows().add(index.size() + 1);
+        if (index.rows(VolcanoBitmapIndex.Column.REGION, "West Indies").cardinality() != westIndies)
+            System.out.println("Shared bitmap error!");
+        if (index.elevationBetween(100, 50).cardinality() != 0 || new VolcanoBitmapIndex(new AvlTree<>()).size() != 0)
+            System.out.println("Empty range error!");
+    }
+
+    // checks that a bitmap holds exactly the expected values
+    private static void check(RoaringBitmap b, TreeSet<Integer> expected, String error) {
+        int[] values = b.toArray();
+        List<Integer> list = new ArrayList<>();
+        for (int x : values)
+            list.add(x);
+        if (b.cardinality() != expected.size() || !list.equals(new ArrayList<>(expected)))
+            System.out.println(error);
+    }
+}
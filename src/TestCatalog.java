@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestCatalog {
+    // Test program for StringHashIndex and VolcanoCatalog: random puts and removes
+    // against a HashMap, then random catalog inserts and removes with every
+    // secondary index checked against a scan of the expected records
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        // keys with a few values each, so runs form and removes shift them back
+        Random rand = new Random(5);
+        StringHashIndex<Integer> index = new StringHashIndex<>();
+        HashMap<String, Integer> expected = new HashMap<>();
+        for (int round = 0; round < 300000; round++) {
+            String key = "k" + rand.nextInt(3000);
+            if (rand.nextInt(3) > 0) {
+                if (!Objects.equals(index.put(key, round), expected.put(key, round)))
+                    System.out.println("Put error!");
+            } else if (!Objects.equals(index.remove(key), expected.remove(key))) {
+                System.out.println("Remove error!");
+            }
+        }
+        if (index.size() != expected.size())
+            System.out.println("Size error!");
+        for (int i = 0; i < 3000; i++)
+            if (!Objects.equals(index.get("k" + i), expected.get("k" + i)))
+                System.out.println("Get error!");
+
+        // "Aa" and "BB" have the same hash code, so these keys all collide
+        StringHashIndex<String> colliding = new StringHashIndex<>();
+        String[] keys = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        for (String k : keys)
+            colliding.put(k, k);
+        colliding.remove("AaBB");
+        if (colliding.get("AaAa") != "AaAa" || colliding.get("AaBB") != null
+                || colliding.get("BBAa") != "BBAa" || colliding.get("BBBB") != "BBBB")
+            System.out.println("Collision error!");
+
+        // random records with a few shared names and countries
+        String[] names = {"Unnamed", "Santa Isabel", "Imuruk Lake", "Fuji", "Etna"};
+        String[] countries = {"Japan", "Italy", "Chile", "Indonesia", "Iceland", "Peru"};
+        for (String engine : new String[] {"avl", "bst", "redblack", "btree"}) {
+            VolcanoCatalog catalog = new VolcanoCatalog(IndexEngines.<Volcano>create(engine));
+            HashMap<String, Volcano> records = new HashMap<>();
+            for (int round = 0; round < 20000; round++) {
+                String number = String.format("%04d-%02d%c", rand.nextInt(20), rand.nextInt(100), "-=0"
+                        .charAt(rand.nextInt(3)));
+                if (rand.nextInt(3) > 0) {
+                    Volcano v = new Volcano("", number, names[rand.nextInt(names.length)],
+                            countries[rand.nextInt(countries.length)], "", 0, 0, rand.nextInt(6000), "", "", "");
+                    catalog.insert(v);
+                    records.putIfAbsent(number, v);
+                } else {
+                    if (catalog.removeNumber(number) != records.remove(number))
+                        System.out.println("Remove error!");
+                }
+
+                if (round % 500 == 0)
+                    check(catalog, records, names, countries);
+            }
+            check(catalog, records, names, countries);
+
+            // a removed record can be found through none of the indexes
+            for (Volcano v : new ArrayList<>(records.values()))
+                if (catalog.remove(v) != v)
+                    System.out.println("Remove error!");
+            records.clear();
+            check(catalog, records, names, countries);
+            if (!catalog.isEmpty())
+                System.out.println("Empty error!");
+        }
+    }
+
+    // checks every lookup against the expected records
+    private static void check(VolcanoCatalog catalog, HashMap<String, Volcano> records,
+                              String[] names, String[] countries) {
+        if (catalog.size() != records.size())
+            System.out.println("Size error!");
+        for (Volcano v : records.values())
+            if (catalog.findByNumber(v.getNumber()) != v || catalog.search(v) != v)
+                System.out.println("Number error!");
+        for (String name : names)
+            if (!catalog.findByName(name).equals(expected(records, name, true)))
+                System.out.println("Name error!");
+        for (String country : countries)
+            if (!catalog.findByCountry(country).equals(expected(records, country, false)))
+                System.out.println("Country error!");
+    }
+
+    // the records with this name or country, lowest first
+    private static List<Volcano> expected(HashMap<String, Volcano> records, String key, boolean byName) {
+        TreeSet<Volcano> found = new TreeSet<>();
+        for (Volcano v : records.values())
+            if ((byName ? v.getName() : v.getCountry()).equals(key))
+                found.add(v);
+        return new ArrayList<>(found);
+    }
+}
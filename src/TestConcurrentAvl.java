@@ -0,0 +1,72 @@
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestConcurrentAvl {
+    // Multi-threaded stress test for ConcurrentAvlTree
+    public static void main( String [ ] args ) throws InterruptedException {
+        final ConcurrentAvlTree<Integer> t = new ConcurrentAvlTree<>();
+        final int NUMS = 200000;  // must be even
+        final int WRITERS = 4;
+        final int READERS = 4;
+        // keys below zero are inserted up front and never removed
+        final int FIXED = 1000;
+
+        System.out.println("Checking... (no more output means success)");
+
+        for (int i = -FIXED; i < 0; i++)
+            t.insert(i);
+
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicInteger errors = new AtomicInteger(0);
+
+        // readers check the fixed keys, which must be visible at every moment
+        ArrayList<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            final int seed = r;
+            Thread reader = new Thread(() -> {
+                int i = seed;
+                while (!done.get()) {
+                    int key = -1 - (i++ % FIXED);
+                    if (!t.contains(key) || t.findMin() != -FIXED)
+                        errors.incrementAndGet();
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        // writers insert interleaved keys, then remove the odd ones, all at once
+        ArrayList<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            final int first = w;
+            Thread writer = new Thread(() -> {
+                for (int i = first; i < NUMS; i += WRITERS)
+                    t.insert(i);
+                for (int i = first; i < NUMS; i += WRITERS)
+                    if (i % 2 == 1)
+                        t.remove(i);
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers)
+            writer.join();
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+
+        if (errors.get() != 0)
+            System.out.println("Reader error! (" + errors.get() + ")");
+
+        t.checkBalance();
+        if (t.findMin() != -FIXED || t.findMax() != NUMS - 2)
+            System.out.println("FindMin or FindMax error!");
+
+        // checks that no insert or remove was lost
+        for (int i = 0; i < NUMS; i++)
+            if (t.contains(i) != (i % 2 == 0))
+                System.out.println("Find error at " + i + "!");
+    }
+}
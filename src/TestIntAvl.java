@@ -0,0 +1,59 @@
+
+public class TestIntAvl {
+    // Test program for IntAvlTree and LongAvlTree, the same checks as TestAvl
+    public static void main( String [ ] args ) {
+        IntAvlTree t = new IntAvlTree();
+        LongAvlTree u = new LongAvlTree();
+        final int SMALL = 40;
+        final int NUMS = 1000000;  // must be even
+        final int GAP = 37;
+        // moves the long keys past the range of an int
+        final long OFFSET = 1L << 40;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts sequence of numbers "GAP" apart into both trees
+        for (int i = GAP; i != 0; i = (i + GAP) % NUMS) {
+            t.insert(i);
+            u.insert(OFFSET + i);
+            if (NUMS < SMALL) {
+                t.checkBalance();
+                u.checkBalance();
+            }
+        }
+
+        // removes odd numbers
+        for (int i = 1; i < NUMS; i += 2) {
+            t.remove(i);
+            u.remove(OFFSET + i);
+            if (NUMS < SMALL) {
+                t.checkBalance();
+                u.checkBalance();
+            }
+        }
+        if (NUMS < SMALL) {
+            t.printTree();
+            u.printTree();
+        }
+
+        // checks to see that the minimum value is 2 and the maximum value is NUMS - 2
+        if (t.findMin() != 2 || t.findMax() != NUMS - 2)
+            System.out.println("FindMin or FindMax error!");
+        if (u.findMin() != OFFSET + 2 || u.findMax() != OFFSET + NUMS - 2)
+            System.out.println("Long FindMin or FindMax error!");
+
+        // checks to see if the trees contain even numbers (they should!)
+        for (int i = 2; i < NUMS; i += 2)
+            if (!t.contains(i) || !u.contains(OFFSET + i))
+                System.out.println("Find error1!");
+
+        // checks to see if the trees contain odd numbers (they shouldn't!)
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.contains(i) || u.contains(OFFSET + i))
+                System.out.println("Find error2!");
+
+        // checks the balance of the final trees once
+        t.checkBalance();
+        u.checkBalance();
+    }
+}
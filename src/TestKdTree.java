@@ -0,0 +1,88 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class TestKdTree {
+    // Test program for VolcanoKdTree, checking nearest, withinRadius and
+    // withinBox against a linear scan, including queries near the poles and
+    // across the 180th meridian
+    public static void main( String [ ] args ) {
+        Random rand = new Random(17);
+        ArrayList<Volcano> volcanoes = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            // some points bunch up near the poles and the 180th meridian
+            double lat = i % 10 == 0 ? 89 + rand.nextDouble() : rand.nextDouble() * 180 - 90;
+            double lon = i % 10 == 1 ? 179.5 + rand.nextDouble() * 0.5 : rand.nextDouble() * 360 - 180;
+            volcanoes.add(new Volcano("", "v" + i, "", "", "", lat, lon, i, "", "", ""));
+        }
+        VolcanoKdTree tree = new VolcanoKdTree(volcanoes);
+
+        System.out.println("Checking... (no more output means success)");
+
+        if (tree.size() != volcanoes.size())
+            System.out.println("Size error!");
+
+        for (int round = 0; round < 200; round++) {
+            double lat = round % 3 == 0 ? 89.5 : rand.nextDouble() * 180 - 90;
+            double lon = round % 3 == 1 ? -179.9 : rand.nextDouble() * 360 - 180;
+
+            // the k nearest are as far as the first k scanned distances, in order
+            int k = 1 + rand.nextInt(20);
+            double[] scanned = new double[volcanoes.size()];
+            for (int i = 0; i < scanned.length; i++)
+                scanned[i] = distance(volcanoes.get(i), lat, lon);
+            Arrays.sort(scanned);
+            List<Volcano> near = tree.nearest(lat, lon, k);
+            if (near.size() != k)
+                System.out.println("Nearest size error!");
+            for (int i = 0; i < k; i++)
+                if (Math.abs(distance(near.get(i), lat, lon) - scanned[i]) > 1e-6)
+                    System.out.println("Nearest error!");
+
+            // everything within the radius, nearest first
+            double km = rand.nextDouble() * 2000;
+            List<Volcano> within = tree.withinRadius(lat, lon, km);
+            int expected = 0;
+            for (Volcano v : volcanoes)
+                if (distance(v, lat, lon) <= km)
+                    expected++;
+            // allow for rounding right at the boundary
+            if (Math.abs(within.size() - expected) > 1)
+                System.out.println("Radius size error!");
+            for (int i = 0; i < within.size(); i++)
+                if (distance(within.get(i), lat, lon) > km + 1e-6
+                        || (i > 0 && distance(within.get(i), lat, lon) < distance(within.get(i - 1), lat, lon)))
+                    System.out.println("Radius error!");
+
+            // a box, sometimes crossing the 180th meridian
+            double south = rand.nextDouble() * 170 - 90;
+            double north = south + rand.nextDouble() * 20;
+            double west = rand.nextDouble() * 360 - 180;
+            double east = west + rand.nextDouble() * 40;
+            if (east > 180)
+                east -= 360;
+            HashSet<Volcano> box = new HashSet<>(tree.withinBox(south, north, west, east));
+            HashSet<Volcano> scan = new HashSet<>();
+            for (Volcano v : volcanoes) {
+                double vlon = v.getLongitude();
+                boolean inLon = west <= east ? vlon >= west && vlon <= east : vlon >= west || vlon <= east;
+                if (v.getLatitude() >= south && v.getLatitude() <= north && inLon)
+                    scan.add(v);
+            }
+            if (!box.equals(scan))
+                System.out.println("Box error!");
+        }
+
+        // an empty tree and k = 0
+        VolcanoKdTree empty = new VolcanoKdTree(new ArrayList<Volcano>());
+        if (!empty.nearest(0, 0, 3).isEmpty() || !tree.nearest(0, 0, 0).isEmpty())
+            System.out.println("Empty error!");
+    }
+
+    // The great-circle distance from v to (lat, lon) in km.
+    static double distance(Volcano v, double lat, double lon) {
+        return VolcanoKdTree.distanceKm(v.getLatitude(), v.getLongitude(), lat, lon);
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestRange {
+    // Test program for rangeQuery and rangeIterator on AvlTree and BST (plain
+    // and treap mode), checked against TreeSet.subSet
+    public static void main( String [ ] args ) {
+        AvlTree<Integer> avl = new AvlTree<>();
+        BST<Integer> bst = new BST<>();
+        BST<Integer> treap = BST.treap(17);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random rand = new Random(17);
+
+        System.out.println("Checking... (no more output means success)");
+
+        for (int i = 0; i < 20000; i++) {
+            int x = rand.nextInt(100000);
+            avl.insert(x);
+            // BST keeps duplicates, so only new keys go in
+            if (expected.add(x)) {
+                bst.insert(x);
+                treap.insert(x);
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int lo = rand.nextInt(110000) - 5000;
+            int hi = lo + rand.nextInt(i % 10 == 0 ? 50000 : 500);
+            List<Integer> want = new ArrayList<>(expected.subSet(lo, true, hi, true));
+            if (!avl.rangeQuery(lo, hi).equals(want))
+                System.out.println("AvlTree range error!");
+            if (!bst.rangeQuery(lo, hi).equals(want) || !treap.rangeQuery(lo, hi).equals(want))
+                System.out.println("BST range error!");
+        }
+
+        // an empty range, and the iterator stopping at the end
+        if (!avl.rangeQuery(10, 5).isEmpty() || !bst.rangeQuery(10, 5).isEmpty())
+            System.out.println("Empty range error!");
+        Iterator<Integer> itr = avl.rangeIterator(expected.last(), Integer.MAX_VALUE);
+        if (itr.next() != expected.last().intValue() || itr.hasNext())
+            System.out.println("Iterator end error!");
+
+        // a null bound leaves that end of the range open
+        int mid = expected.first() + (expected.last() - expected.first()) / 2;
+        List<Integer> below = new ArrayList<>(expected.headSet(mid, true));
+        List<Integer> above = new ArrayList<>(expected.tailSet(mid, true));
+        if (!avl.rangeQuery(null, mid).equals(below) || !avl.rangeQuery(mid, null).equals(above)
+                || !avl.rangeQuery(null, null).equals(new ArrayList<>(expected)))
+            System.out.println("AvlTree open range error!");
+        for (BST<Integer> tree : List.of(bst, treap)) {
+            if (!tree.rangeQuery(null, mid).equals(below) || !tree.rangeQuery(mid, null).equals(above)
+                    || !tree.rangeQuery(null, null).equals(new ArrayList<>(expected)))
+                System.out.println("BST open range error!");
+        }
+
+        // duplicates in a plain BST are all returned
+        BST<Integer> dups = new BST<>();
+        for (int k : new int[] {5, 3, 5, 8, 5, 1})
+            dups.insert(k);
+        if (!dups.rangeQuery(3, 5).toString().equals("[3, 5, 5, 5]"))
+            System.out.println("Duplicate range error!");
+
+        // an elevation range of volcanoes, including ties at both ends
+        AvlTree<Volcano> volcanoes = new AvlTree<>();
+        String[] numbers = {"0100-01-", "0100-02-", "0100-03-", "0100-04-", "0100-05-", "0100-06-"};
+        int[] elevations = {2999, 3000, 3000, 3500, 4000, 4001};
+        for (int i = 0; i < numbers.length; i++)
+            volcanoes.insert(new Volcano("", numbers[i], "", "", "", 0, 0, elevations[i], "", "", ""));
+        List<Volcano> found = volcanoes.rangeQuery(Volcano.lowestAt(3000), Volcano.highestAt(4000));
+        if (found.size() != 4 || found.get(0).getElevation() != 3000 || found.get(3).getElevation() != 4000)
+            System.out.println("Elevation range error!");
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestRedBlack {
+    // Test program for RedBlackTree, the same checks as TestAvl, then random
+    // inserts and removes checked against a TreeSet
+    public static void main( String [ ] args ) {
+        RedBlackTree<Integer> t = new RedBlackTree<>();
+        final int NUMS = 1000000;  // must be even
+        final int GAP = 37;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts sequence of numbers "GAP" apart into the tree
+        for (int i = GAP; i != 0; i = (i + GAP) % NUMS)
+            t.insert(i);
+        t.checkBalance();
+
+        // removes odd numbers
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.remove(i) != i)
+                System.out.println("Remove error!");
+        t.checkBalance();
+
+        // checks to see that the minimum value is 2 and the maximum value is NUMS - 2
+        if (t.findMin() != 2 || t.findMax() != NUMS - 2)
+            System.out.println("FindMin or FindMax error!");
+
+        // checks to see if the tree contains even numbers (it should!)
+        for (int i = 2; i < NUMS; i += 2)
+            if (!t.contains(i))
+                System.out.println("Find error1!");
+
+        // checks to see if the tree contains odd numbers (it shouldn't!)
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.contains(i))
+                System.out.println("Find error2!");
+
+        // random inserts and removes against a TreeSet
+        Random rand = new Random(17);
+        t.makeEmpty();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 200000; round++) {
+            int x = rand.nextInt(5000);
+            if (rand.nextBoolean()) {
+                t.insert(x);
+                expected.add(x);
+            } else if ((t.remove(x) != null) != expected.remove(x)) {
+                System.out.println("Random remove error!");
+            }
+            if (round % 1000 == 0)
+                t.checkBalance();
+        }
+        for (int x = 0; x < 5000; x++)
+            if (t.contains(x) != expected.contains(x))
+                System.out.println("Random find error!");
+    }
+}
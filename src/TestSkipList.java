@@ -0,0 +1,71 @@
+
+import java.util.ArrayList;
+
+public class TestSkipList {
+    // Test program for LockFreeSkipList, sequential and then multi-threaded
+    public static void main( String [ ] args ) throws InterruptedException {
+        LockFreeSkipList<Integer> t = new LockFreeSkipList<>();
+        final int NUMS = 200000;  // must be even
+        final int GAP = 37;
+        final int THREADS = 4;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts sequence of numbers "GAP" apart, then removes odd numbers
+        for (int i = GAP; i != 0; i = (i + GAP) % NUMS)
+            if (!t.add(i))
+                System.out.println("Insert error!");
+        if (t.add(GAP))
+            System.out.println("Duplicate insert error!");
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.remove(i) == null)
+                System.out.println("Remove error!");
+
+        if (t.findMin() != 2 || t.findMax() != NUMS - 2)
+            System.out.println("FindMin or FindMax error!");
+        for (int i = 1; i < NUMS; i++)
+            if (t.contains(i) != (i % 2 == 0))
+                System.out.println("Find error1!");
+
+        // the iterator returns the even numbers in ascending order
+        int expected = 2;
+        for (int x : t) {
+            if (x != expected)
+                System.out.println("Iterator error!");
+            expected += 2;
+        }
+        if (expected != NUMS)
+            System.out.println("Iterator length error!");
+
+        // threads put the odd numbers back and remove the even ones, all at once
+        LockFreeSkipList<Integer> s = t;
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < THREADS; w++) {
+            final int first = w + 1;
+            Thread thread = new Thread(() -> {
+                for (int i = first; i < NUMS; i += THREADS) {
+                    if (i % 2 == 1)
+                        s.insert(i);
+                    else
+                        s.remove(i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        for (int i = 1; i < NUMS; i++)
+            if (t.contains(i) != (i % 2 == 1))
+                System.out.println("Find error2 at " + i + "!");
+        if (t.findMin() != 1 || t.findMax() != NUMS - 1)
+            System.out.println("FindMin or FindMax error2!");
+
+        // removes everything
+        for (int i = 1; i < NUMS; i += 2)
+            t.remove(i);
+        if (!t.isEmpty())
+            System.out.println("IsEmpty error!");
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestSplay {
+    // Test program for SplayTree, the same checks as TestAvl, then random
+    // inserts, removes and searches checked against a TreeSet
+    public static void main( String [ ] args ) {
+        SplayTree<Integer> t = new SplayTree<>();
+        final int NUMS = 1000000;  // must be even
+        final int GAP = 37;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts sequence of numbers "GAP" apart into the tree
+        for (int i = GAP; i != 0; i = (i + GAP) % NUMS)
+            t.insert(i);
+
+        // removes odd numbers
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.remove(i) != i)
+                System.out.println("Remove error!");
+
+        // checks to see that the minimum value is 2 and the maximum value is NUMS - 2
+        if (t.findMin() != 2 || t.findMax() != NUMS - 2)
+            System.out.println("FindMin or FindMax error!");
+
+        // checks to see if the tree contains even numbers (it should!)
+        for (int i = 2; i < NUMS; i += 2)
+            if (!t.contains(i))
+                System.out.println("Find error1!");
+
+        // checks to see if the tree contains odd numbers (it shouldn't!)
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.contains(i))
+                System.out.println("Find error2!");
+        t.checkOrder();
+
+        // random inserts, removes and Zipf-skewed searches against a TreeSet
+        Random rand = new Random(17);
+        ZipfGenerator zipf = new ZipfGenerator(5000, 1.0, rand);
+        t.makeEmpty();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 200000; round++) {
+            int x = rand.nextInt(5000);
+            int op = rand.nextInt(3);
+            if (op == 0) {
+                t.insert(x);
+                expected.add(x);
+            } else if (op == 1) {
+                if ((t.remove(x) != null) != expected.remove(x))
+                    System.out.println("Random remove error!");
+            } else {
+                int y = zipf.next();
+                if ((t.search(y) != null) != expected.contains(y))
+                    System.out.println("Random search error!");
+            }
+            if (round % 1000 == 0)
+                t.checkOrder();
+        }
+        for (int x = 0; x < 5000; x++)
+            if (t.contains(x) != expected.contains(x))
+                System.out.println("Random find error!");
+    }
+}
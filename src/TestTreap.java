@@ -0,0 +1,50 @@
+public class TestTreap {
+    // Test program for BST in treap mode. Sorted inserts that make a plain BST
+    // a linked list should still give a tree about log2(NUMS) deep.
+    public static void main( String [ ] args ) {
+        BST<Integer> t = BST.treap(17);
+        final int NUMS = 1000000;  // must be even
+
+        System.out.println("Checking... (no more output means success)");
+
+        // inserts sorted numbers into the treap
+        for (int i = 0; i < NUMS; i++)
+            t.insert(i);
+
+        // the expected depth is about 2 ln(NUMS) = 28; a list would be NUMS - 1
+        if (t.size() != NUMS || t.height() > 60)
+            System.out.println("Size or height error! height = " + t.height());
+
+        // removes odd numbers
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.remove(i) == null)
+                System.out.println("Remove error!");
+
+        if (t.size() != NUMS / 2 || t.height() > 60)
+            System.out.println("Size or height error after remove! height = " + t.height());
+
+        // checks to see that the minimum value is 0 and the maximum value is NUMS - 2
+        if (t.findMin() != 0 || t.findMax() != NUMS - 2)
+            System.out.println("FindMin or FindMax error!");
+
+        // checks to see if the treap contains even numbers (it should!)
+        for (int i = 0; i < NUMS; i += 2)
+            if (t.search(i) == null)
+                System.out.println("Find error1!");
+
+        // checks to see if the treap contains odd numbers (it shouldn't!)
+        for (int i = 1; i < NUMS; i += 2)
+            if (t.search(i) != null)
+                System.out.println("Find error2!");
+
+        // the iterator still lists the elements in order, duplicates included
+        BST<Integer> s = BST.treap(5);
+        int[] keys = {50, 30, 70, 20, 40, 60, 80, 65, 40};
+        for (int k : keys)
+            s.insert(k);
+        s.remove(50);
+        s.remove(30);
+        if (!s.toString().equals("20\n40\n40\n60\n65\n70\n80"))
+            System.out.println("Iterator order error!");
+    }
+}
@@ -4,6 +4,10 @@
  * to create each Volcano object. Each volcano in the file has specific
  * attributes. Kaggle Dataset:
  * https://www.kaggle.com/datasets/ramjasmaurya/volcanoes-on-earth-in-2021
+ * Latitude, longitude and elevation are kept as primitives, so a Volcano
+ * holds no boxed numbers and compareTo does not unbox. VolcanoCsvReader
+ * shares one String between all records with the same region, country,
+ * location, type, status or last known eruption.
  * @author Wynne Greene
  * @date: October 24, 2024
  ***********************************************************************/
@@ -13,13 +17,16 @@ public class Volcano implements Comparable<Volcano> {
     private String name; //Name of volcano
     private String country; //Where it is present
     private String location; //Location, continent wise
-    private Double latitude; //Location in latitude
-    private Double longitude; //Location in longitude
-    private Integer elevation; //Elevation in meters
+    private double latitude; //Location in latitude
+    private double longitude; //Location in longitude
+    private int elevation; //Elevation in meters
     private String type; //Type of volcano
     private String status; //Current status of the volcano
     private String lastKnownEruption;
-
+    //Elevation in the high 32 bits and an ordinal of the volcano number in the
+    //low 32 bits. It is kept up to date by the constructors and setters, so
+    //compareTo is a single long comparison.
+    private long sortKey;
 
     //Default constructor
     public Volcano() {
@@ -34,11 +41,12 @@ public class Volcano implements Comparable<Volcano> {
         this.type = "";
         this.status = "";
         this.lastKnownEruption = "";
+        this.sortKey = sortKey(elevation, number);
     }
 
     //Parametrized constructor
-    public Volcano(String region, String number, String name, String country, String location, Double latitude, Double longitude,
-                   Integer elevation, String type, String status, String lastKnownEruption) {
+    public Volcano(String region, String number, String name, String country, String location, double latitude, double longitude,
+                   int elevation, String type, String status, String lastKnownEruption) {
         this.region = region;
         this.number = number;
         this.name = name;
@@ -50,6 +58,7 @@ public class Volcano implements Comparable<Volcano> {
         this.type = type;
         this.status = status;
         this.lastKnownEruption = lastKnownEruption;
+        this.sortKey = sortKey(elevation, number);
     }
 
     //Copy constructor
@@ -65,6 +74,7 @@ public class Volcano implements Comparable<Volcano> {
         this.type = v.type;
         this.status = v.status;
         this.lastKnownEruption = v.lastKnownEruption;
+        this.sortKey = v.sortKey;
     }
 
     //This method prints out the string representation of the object.
@@ -107,24 +117,76 @@ public class Volcano implements Comparable<Volcano> {
 
     /*This method compares two objects. This method returns a negative number if the object
     is less than the object passed as a parameter, a positive number if the object is
-    greater than the object passed as a parameter, and 0 if the objects are equal.*/
+    greater than the object passed as a parameter, and 0 if the objects are equal.
+    Volcanoes are ordered by elevation, and volcanoes with the same elevation by their
+    volcano number, so this is a total order and tied elevations search correctly.*/
     @Override
     public int compareTo(Volcano obj) {
-        int x = this.getElevation().compareTo(obj.getElevation());
-        //If the objects are equal, check their other fields.
-        if(x==0) {
-            if(!this.equals(obj))
-                return -1;
-            return 0;
+        int x = Long.compare(this.sortKey, obj.sortKey);
+        //Only numbers outside the usual format can share an ordinal, so only they
+        //need the numbers themselves compared.
+        if(x==0 && (sortKey & IRREGULAR) != 0) {
+            return this.number.compareTo(obj.number);
         }
-        else {
-            return x;
+        return x;
+    }
+
+    //Numbers that are not in the usual "dddd-ddc" format get this bit set in their
+    //ordinal, and the rest of the ordinal is the number's hash code.
+    private static final long IRREGULAR = 0x80000000L;
+
+    //This method returns a volcano that sorts before every real volcano at this
+    //elevation. It is the low end of an elevation range query, such as
+    //tree.rangeQuery(Volcano.lowestAt(3000), Volcano.highestAt(4000)).
+    public static Volcano lowestAt(int elevation) {
+        Volcano v = new Volcano();
+        v.elevation = elevation;
+        v.sortKey = (long) elevation << 32;
+        return v;
+    }
+
+    //This method returns a volcano that sorts after every real volcano at this
+    //elevation, the high end of an elevation range query. Its number sorts after
+    //any real number in case an irregular number has the largest ordinal.
+    public static Volcano highestAt(int elevation) {
+        Volcano v = new Volcano();
+        v.elevation = elevation;
+        v.number = "\uffff";
+        v.sortKey = ((long) elevation << 32) | 0xffffffffL;
+        return v;
+    }
+
+    //This method builds the sort key from an elevation and a volcano number.
+    static long sortKey(int elevation, String number) {
+        return ((long) elevation << 32) | numberOrdinal(number);
+    }
+
+    //This method turns a volcano number such as "1600-21-", "1304-021" or "1600-08="
+    //into a distinct value below 2^31 that orders the same way the numbers sort.
+    //Other numbers get their hash code with the IRREGULAR bit set.
+    static long numberOrdinal(String number) {
+        if(number.length() == 8 && number.charAt(4) == '-') {
+            long value = 0;
+            boolean digits = true;
+            for(int i = 0; i < 7 && digits; i++) {
+                if(i == 4)
+                    continue;
+                char c = number.charAt(i);
+                digits = c >= '0' && c <= '9';
+                value = value * 10 + (c - '0');
+            }
+            //The last character is a digit or one of the suffixes '-' and '=', ranked
+            //in the same order as their character codes.
+            char last = number.charAt(7);
+            int suffix = last == '-' ? 0 : (last >= '0' && last <= '9') ? last - '0' + 1 : last == '=' ? 11 : -1;
+            if(digits && suffix >= 0)
+                return value * 12 + suffix;
         }
-        //Integer.compare(this.getElevation(), obj.getElevation());
+        return (number.hashCode() & 0xffffffffL) | IRREGULAR;
     }
 
     //These are the getter methods for each variable.
-    public Integer getElevation() {
+    public int getElevation() {
         return elevation;
     }
 
@@ -148,11 +210,11 @@ public class Volcano implements Comparable<Volcano> {
         return location;
     }
 
-    public Double getLatitude() {
+    public double getLatitude() {
         return latitude;
     }
 
-    public Double getLongitude() {
+    public double getLongitude() {
         return longitude;
     }
 
@@ -168,6 +230,10 @@ public class Volcano implements Comparable<Volcano> {
         return lastKnownEruption;
     }
 
+    public long getSortKey() {
+        return sortKey;
+    }
+
     //The following are the setter methods for each variable.
     public void setRegion(String region) {
         this.region = region;
@@ -175,6 +241,7 @@ public class Volcano implements Comparable<Volcano> {
 
     public void setNumber(String number) {
         this.number = number;
+        this.sortKey = sortKey(elevation, number);
     }
 
     public void setName(String name) {
@@ -189,16 +256,17 @@ public class Volcano implements Comparable<Volcano> {
         this.location = location;
     }
 
-    public void setLatitude(Double latitude) {
+    public void setLatitude(double latitude) {
         this.latitude = latitude;
     }
 
-    public void setLongitude(Double longitude) {
+    public void setLongitude(double longitude) {
         this.longitude = longitude;
     }
 
-    public void setElevation(Integer elevation) {
+    public void setElevation(int elevation) {
         this.elevation = elevation;
+        this.sortKey = sortKey(elevation, number);
     }
 
     public void setType(String type) {
@@ -0,0 +1,233 @@
+/**********************************************************************
+ * @file VolcanoBitmapIndex.java
+ * @brief This program implements the VolcanoBitmapIndex class, bitmap
+ * indexes over the categorical Volcano columns (status, type, region and
+ * last known eruption), each of which has only a few dozen distinct
+ * values. The volcanoes of an AvlTree are numbered by rank, lowest first,
+ * and each column maps every value to a RoaringBitmap of the rows that
+ * have it. A filter such as "Stratovolcano AND Historical AND NOT West
+ * Indies" is then a few bitmap ANDs instead of a scan of every record.
+ *
+ * Because rows are numbered in elevation order, an elevation range is a
+ * run of consecutive rows, found with the tree's rank() and countInRange()
+ * in O(log n). where() builds a Query whose planner knows the exact size
+ * of each predicate before it runs any of them: it starts from the most
+ * selective, intersects the rest in order of size, stops as soon as the
+ * result is empty, and subtracts the negated predicates last. The index
+ * is a snapshot of the tree; build a new one after the tree changes.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class VolcanoBitmapIndex {
+    //The columns with a bitmap index.
+    public enum Column {
+        STATUS(Volcano::getStatus),
+        TYPE(Volcano::getType),
+        REGION(Volcano::getRegion),
+        LAST_KNOWN_ERUPTION(Volcano::getLastKnownEruption);
+
+        private final Function<Volcano, String> getter;
+
+        Column(Function<Volcano, String> getter) {
+            this.getter = getter;
+        }
+
+        //This method returns the column's value for v.
+        public String of(Volcano v) {
+            return getter.apply(v);
+        }
+    }
+
+    //The tree the rows come from, used for elevation ranges.
+    private final AvlTree<Volcano> tree;
+    //rows[i] is the volcano of rank i in the tree.
+    private final Volcano[] rows;
+    //For each column, the rows with each value.
+    private final EnumMap<Column, StringHashIndex<RoaringBitmap>> columns = new EnumMap<>(Column.class);
+
+    //The constructor indexes every volcano in the tree.
+    public VolcanoBitmapIndex(AvlTree<Volcano> tree) {
+        this.tree = tree;
+        List<Volcano> sorted = tree.isEmpty() ? new ArrayList<>() : tree.rangeQuery(tree.findMin(), tree.findMax());
+        rows = sorted.toArray(new Volcano[0]);
+        for (Column c : Column.values()) {
+            StringHashIndex<RoaringBitmap> index = new StringHashIndex<>();
+            for (int row = 0; row < rows.length; row++) {
+                String value = c.of(rows[row]);
+                RoaringBitmap b = index.get(value);
+                if (b == null) {
+                    b = new RoaringBitmap();
+                    index.put(value, b);
+                }
+                b.add(row);
+            }
+            columns.put(c, index);
+        }
+    }
+
+    //This method returns the number of rows.
+    public int size() {
+        return rows.length;
+    }
+
+    //This method returns the volcano in a row.
+    public Volcano volcano(int row) {
+        return rows[row];
+    }
+
+    //This method returns the volcanoes in the given rows, lowest first.
+    public List<Volcano> volcanoes(RoaringBitmap rowIds) {
+        ArrayList<Volcano> found = new ArrayList<>(rowIds.cardinality());
+        for (int row : rowIds.toArray())
+            found.add(rows[row]);
+        return found;
+    }
+
+    //This method returns the rows whose column c is value.
+    public RoaringBitmap rows(Column c, String value) {
+        return bitmap(c, value).copy();
+    }
+
+    //This method returns every row, for use with andNot (NOT).
+    public RoaringBitmap all() {
+        return RoaringBitmap.range(0, rows.length);
+    }
+
+    //This method returns the rows with lo <= elevation <= hi.
+    public RoaringBitmap elevationBetween(int lo, int hi) {
+        int first = firstRowAtOrAbove(lo);
+        return RoaringBitmap.range(first, first + countElevation(lo, hi));
+    }
+
+    //This method starts a query that keeps every row until predicates are added.
+    public Query where() {
+        return new Query();
+    }
+
+    //This method returns the stored bitmap for a value, or an empty one.
+    private RoaringBitmap bitmap(Column c, String value) {
+        RoaringBitmap b = columns.get(c).get(value);
+        return b == null ? new RoaringBitmap() : b;
+    }
+
+    //This method returns the first row at or above elevation lo.
+    private int firstRowAtOrAbove(int lo) {
+        return tree.rank(Volcano.lowestAt(lo));
+    }
+
+    //This method returns the number of rows with lo <= elevation <= hi.
+    private int countElevation(int lo, int hi) {
+        return lo > hi ? 0 : tree.countInRange(Volcano.lowestAt(lo), Volcano.highestAt(hi));
+    }
+
+    //A Query is a conjunction of predicates. Each predicate knows how many rows
+    //it matches before it is evaluated, which is all the planner needs.
+    public final class Query {
+        private final ArrayList<Predicate> predicates = new ArrayList<>();
+
+        //This method keeps the rows whose column c is value.
+        public Query is(Column c, String value) {
+            RoaringBitmap b = bitmap(c, value);
+            predicates.add(new Predicate(c + " = " + value, false, b.cardinality(), () -> b));
+            return this;
+        }
+
+        //This method keeps the rows whose column c is any of the values (OR).
+        public Query isAnyOf(Column c, String... values) {
+            int estimate = 0;
+            for (String value : values)
+                estimate += bitmap(c, value).cardinality();
+            predicates.add(new Predicate(c + " in " + String.join("|", values), false, estimate, () -> {
+                RoaringBitmap union = new RoaringBitmap();
+                for (String value : values)
+                    union = RoaringBitmap.or(union, bitmap(c, value));
+                return union;
+            }));
+            return this;
+        }
+
+        //This method drops the rows whose column c is value (NOT).
+        public Query isNot(Column c, String value) {
+            RoaringBitmap b = bitmap(c, value);
+            predicates.add(new Predicate(c + " != " + value, true, b.cardinality(), () -> b));
+            return this;
+        }
+
+        //This method keeps the rows with lo <= elevation <= hi.
+        public Query elevationBetween(int lo, int hi) {
+            predicates.add(new Predicate("elevation " + lo + ".." + hi, false, countElevation(lo, hi),
+                    () -> VolcanoBitmapIndex.this.elevationBetween(lo, hi)));
+            return this;
+        }
+
+        //This method returns the predicates in the order rows() evaluates them,
+        //one per line with the number of rows each matches.
+        public String explain() {
+            StringBuilder sb = new StringBuilder();
+            for (Predicate p : plan())
+                sb.append(p.negated ? "minus " : "and ").append(p.description)
+                        .append(" (").append(p.estimate).append(" rows)\n");
+            return sb.toString();
+        }
+
+        //This method returns the rows that match every predicate.
+        public RoaringBitmap rows() {
+            RoaringBitmap result = null;
+            //The first kept predicate may be a stored bitmap, which must be copied
+            //if nothing else is applied to it.
+            boolean stored = false;
+            for (Predicate p : plan()) {
+                if (result == null) {
+                    result = p.negated ? RoaringBitmap.andNot(all(), p.rows.get()) : p.rows.get();
+                    stored = !p.negated;
+                } else {
+                    result = p.negated ? RoaringBitmap.andNot(result, p.rows.get()) : RoaringBitmap.and(result, p.rows.get());
+                    stored = false;
+                }
+                if (result.isEmpty())
+                    break;
+            }
+            if (result == null)
+                return all();
+            return stored ? result.copy() : result;
+        }
+
+        //This method returns the volcanoes that match every predicate, lowest first.
+        public List<Volcano> volcanoes() {
+            return VolcanoBitmapIndex.this.volcanoes(rows());
+        }
+
+        //This method orders the predicates: the kept ones from fewest rows to
+        //most, so the running result shrinks as fast as possible, then the
+        //dropped ones, which can only shrink it further.
+        private List<Predicate> plan() {
+            ArrayList<Predicate> order = new ArrayList<>(predicates);
+            order.sort(Comparator.comparing((Predicate p) -> p.negated).thenComparingInt(p -> p.estimate));
+            return order;
+        }
+    }
+
+    //A predicate is a set of rows to keep or drop, with its size known up front.
+    private static final class Predicate {
+        final String description;
+        final boolean negated;
+        final int estimate;
+        final Supplier<RoaringBitmap> rows;
+
+        Predicate(String description, boolean negated, int estimate,
+                  Supplier<RoaringBitmap> rows) {
+            this.description = description;
+            this.negated = negated;
+            this.estimate = estimate;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**********************************************************************
+ * @file VolcanoCatalog.java
+ * @brief This program implements the VolcanoCatalog class, a SortedIndex
+ * of volcanoes that adds secondary indexes to any primary engine. The
+ * primary index orders the volcanoes by elevation as before, and hash
+ * indexes find them by volcano number, by name and by country in O(1)
+ * instead of walking the whole tree. Number is unique, so it maps to one
+ * volcano; a name ("Unnamed") or a country can belong to many, so those
+ * map to a postings list kept in the primary index's order. Every insert
+ * and remove goes through the catalog, which keeps the primary and
+ * secondary indexes in step. Do not change a volcano's number, name,
+ * country or elevation while it is in a catalog.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class VolcanoCatalog implements SortedIndex<Volcano> {
+    //The primary index, ordered by elevation.
+    private final SortedIndex<Volcano> primary;
+    //The volcano with each number.
+    private final StringHashIndex<Volcano> byNumber = new StringHashIndex<>();
+    //The volcanoes with each name, and in each country, in primary order.
+    private final StringHashIndex<ArrayList<Volcano>> byName = new StringHashIndex<>();
+    private final StringHashIndex<ArrayList<Volcano>> byCountry = new StringHashIndex<>();
+
+    //The constructor creates an empty catalog on an AVL Tree.
+    public VolcanoCatalog() {
+        this(new AvlTree<>());
+    }
+
+    //This constructor creates a catalog on an empty primary index, such as
+    //IndexEngines.create("redblack").
+    public VolcanoCatalog(SortedIndex<Volcano> primary) {
+        if (!primary.isEmpty())
+            throw new IllegalArgumentException("the primary index must start empty");
+        this.primary = primary;
+    }
+
+    //This method adds v. A volcano whose number is already in the catalog is
+    //ignored, since the number identifies the volcano.
+    @Override
+    public void insert(Volcano v) {
+        if (byNumber.containsKey(v.getNumber()))
+            return;
+        primary.insert(v);
+        byNumber.put(v.getNumber(), v);
+        addPosting(byName, v.getName(), v);
+        addPosting(byCountry, v.getCountry(), v);
+    }
+
+    //This method returns the volcano equal to v in the primary index, or null.
+    @Override
+    public Volcano search(Volcano v) {
+        return primary.search(v);
+    }
+
+    //This method removes the volcano equal to v and returns it, or returns null
+    //if there is none.
+    @Override
+    public Volcano remove(Volcano v) {
+        Volcano removed = primary.remove(v);
+        if (removed != null) {
+            byNumber.remove(removed.getNumber());
+            removePosting(byName, removed.getName(), removed);
+            removePosting(byCountry, removed.getCountry(), removed);
+        }
+        return removed;
+    }
+
+    //This method removes the volcano with this number and returns it, or returns
+    //null if there is none.
+    public Volcano removeNumber(String number) {
+        Volcano v = byNumber.get(number);
+        return v == null ? null : remove(v);
+    }
+
+    //This method returns the volcano with this number, or null if there is none.
+    public Volcano findByNumber(String number) {
+        return byNumber.get(number);
+    }
+
+    //This method returns the volcanoes with this name, lowest first, as a
+    //read-only list that is only valid until the catalog next changes.
+    public List<Volcano> findByName(String name) {
+        return postings(byName, name);
+    }
+
+    //This method returns the volcanoes in this country, lowest first, as a
+    //read-only list that is only valid until the catalog next changes.
+    public List<Volcano> findByCountry(String country) {
+        return postings(byCountry, country);
+    }
+
+    //This method returns the number of volcanoes in the catalog.
+    public int size() {
+        return byNumber.size();
+    }
+
+    //This method returns the lowest volcano.
+    @Override
+    public Volcano findMin() {
+        return primary.findMin();
+    }
+
+    //This method returns the highest volcano.
+    @Override
+    public Volcano findMax() {
+        return primary.findMax();
+    }
+
+    //This method checks if the catalog is empty.
+    @Override
+    public boolean isEmpty() {
+        return primary.isEmpty();
+    }
+
+    //This method removes every volcano from the primary and secondary indexes.
+    @Override
+    public void makeEmpty() {
+        primary.makeEmpty();
+        byNumber.clear();
+        byName.clear();
+        byCountry.clear();
+    }
+
+    //This method adds v to the postings list for key, in primary order.
+    private static void addPosting(StringHashIndex<ArrayList<Volcano>> index, String key, Volcano v) {
+        ArrayList<Volcano> list = index.get(key);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            index.put(key, list);
+        }
+        int i = Collections.binarySearch(list, v);
+        list.add(i < 0 ? -i - 1 : i, v);
+    }
+
+    //This method removes v from the postings list for key, and drops the list
+    //once it is empty.
+    private static void removePosting(StringHashIndex<ArrayList<Volcano>> index, String key, Volcano v) {
+        ArrayList<Volcano> list = index.get(key);
+        if (list == null)
+            return;
+        int i = Collections.binarySearch(list, v);
+        if (i >= 0)
+            list.remove(i);
+        if (list.isEmpty())
+            index.remove(key);
+    }
+
+    //This method returns a read-only view of the postings list for key.
+    private static List<Volcano> postings(StringHashIndex<ArrayList<Volcano>> index, String key) {
+        ArrayList<Volcano> list = index.get(key);
+        return list == null ? Collections.<Volcano>emptyList() : Collections.unmodifiableList(list);
+    }
+}
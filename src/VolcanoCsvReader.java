@@ -0,0 +1,370 @@
+/**********************************************************************
+ * @file VolcanoCsvReader.java
+ * @brief This program implements the VolcanoCsvReader class, which reads
+ * Volcano records from the dataset file in a single pass over a char
+ * buffer. Quoted fields follow RFC 4180, so a field such as
+ * "Diables, Morne aux" may contain commas, line breaks and doubled ("")
+ * quotes. Numbers are parsed straight from the buffer without creating
+ * intermediate Strings, and no regex, String.split or ArrayList is used
+ * per row. Region, country, location, type, status and last known
+ * eruption values are shared through a StringPool, and the Volcano is
+ * built from primitive numbers. The reader is an Iterator of Volcano and
+ * can also be used as a Stream.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class VolcanoCsvReader implements Iterator<Volcano>, Closeable {
+    //The number of columns in each record of the dataset.
+    public static final int FIELDS = 11;
+
+    //These are the ways readField() can end a field.
+    private static final int END_FIELD = 0;
+    private static final int END_RECORD = 1;
+    private static final int END_INPUT = 2;
+
+    //Powers of ten that are exact as doubles, used by parseDouble().
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    //The input and the buffer that is scanned one char at a time. in is null when
+    //the whole input is already in buf.
+    private final Reader in;
+    private final char[] buf;
+    private int pos;
+    private int limit;
+
+    //field holds the chars of the field that was just read, with the quotes removed.
+    private char[] field = new char[64];
+    private int fieldLen;
+    //quoted is true if the field that was just read was enclosed in quotes.
+    private boolean quoted;
+
+    //pool shares one String per distinct value of the low-cardinality columns.
+    private final StringPool pool = new StringPool();
+
+    //recordNumber is the 1-based record being read, used in error messages.
+    private long recordNumber;
+    //next is the record that hasNext() read ahead, or null.
+    private Volcano next;
+    //done is set once the end of the input has been reached.
+    private boolean done;
+
+    //This constructor reads from in. If hasHeader is true the first record is skipped.
+    public VolcanoCsvReader(Reader in, boolean hasHeader) {
+        this(in, hasHeader, 1 << 16);
+    }
+
+    //This constructor also sets the size of the char buffer.
+    public VolcanoCsvReader(Reader in, boolean hasHeader, int bufferSize) {
+        this.in = in;
+        this.buf = new char[bufferSize];
+        if (hasHeader) {
+            try {
+                skipRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    //This constructor reads the records held in chars, from its position to its
+    //limit, with no header. The chars are scanned in place when chars has a
+    //backing array, which is how MappedVolcanoLoader parses each chunk.
+    public VolcanoCsvReader(CharBuffer chars) {
+        this.in = null;
+        if (chars.hasArray()) {
+            this.buf = chars.array();
+            this.pos = chars.arrayOffset() + chars.position();
+            this.limit = chars.arrayOffset() + chars.limit();
+        } else {
+            this.buf = new char[chars.remaining()];
+            chars.duplicate().get(buf);
+            this.limit = buf.length;
+        }
+    }
+
+    //This method opens the dataset file, which has a header line and is UTF-8 encoded.
+    public static VolcanoCsvReader open(String fileName) throws IOException {
+        return new VolcanoCsvReader(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8), true);
+    }
+
+    //Checks if there is another record, reading it ahead if necessary.
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = readVolcano();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    //This method returns the next record.
+    @Override
+    public Volcano next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        Volcano v = next;
+        next = null;
+        return v;
+    }
+
+    //This method returns the remaining records as a sequential stream.
+    //Closing the stream closes the reader.
+    public Stream<Volcano> stream() {
+        Spliterator<Volcano> split = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(split, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    //This method closes the underlying reader.
+    @Override
+    public void close() throws IOException {
+        done = true;
+        if (in != null)
+            in.close();
+    }
+
+    //This method reads one record and builds a Volcano from it. It returns
+    //null at the end of the input. Blank lines are skipped.
+    private Volcano readVolcano() throws IOException {
+        while (true) {
+            recordNumber++;
+            int end = readField();
+            if (end == END_INPUT && fieldLen == 0 && !quoted) {
+                done = true;
+                return null;
+            }
+            if (end == END_RECORD && fieldLen == 0 && !quoted)
+                continue;
+
+            //The fields are read in the order of the dataset's columns.
+            String region = pooled();
+            end = expectMore(end, 1);
+            String number = text();
+            end = expectMore(end, 2);
+            String name = text();
+            end = expectMore(end, 3);
+            String country = pooled();
+            end = expectMore(end, 4);
+            String location = pooled();
+            end = expectMore(end, 5);
+            double latitude = parseDouble();
+            end = expectMore(end, 6);
+            double longitude = parseDouble();
+            end = expectMore(end, 7);
+            int elevation = parseInt();
+            end = expectMore(end, 8);
+            String type = pooled();
+            end = expectMore(end, 9);
+            String status = pooled();
+            end = expectMore(end, 10);
+            String lastKnownEruption = pooled();
+            if (end == END_FIELD)
+                throw new IllegalArgumentException("record " + recordNumber + ": more than " + FIELDS + " fields");
+            if (end == END_INPUT)
+                done = true;
+
+            return new Volcano(region, number, name, country, location, latitude, longitude,
+                    elevation, type, status, lastKnownEruption);
+        }
+    }
+
+    //This method reads the field after a comma. It throws an exception if the
+    //record ended after only count fields.
+    private int expectMore(int end, int count) throws IOException {
+        if (end != END_FIELD)
+            throw new IllegalArgumentException("record " + recordNumber + ": expected " + FIELDS
+                    + " fields but found " + count);
+        return readField();
+    }
+
+    //This method skips the rest of the current record.
+    private void skipRecord() throws IOException {
+        int end;
+        do {
+            end = readField();
+        } while (end == END_FIELD);
+        if (end == END_INPUT)
+            done = true;
+    }
+
+    //This method reads one field into field[] and returns what ended it: a comma,
+    //a line break (\n, \r\n or \r) or the end of the input.
+    private int readField() throws IOException {
+        fieldLen = 0;
+        quoted = false;
+        int c = read();
+        if (c == '"') {
+            //Inside quotes everything is data; "" stands for one quote.
+            quoted = true;
+            while (true) {
+                c = read();
+                if (c == -1)
+                    throw new IllegalArgumentException("record " + recordNumber + ": unterminated quoted field");
+                if (c == '"') {
+                    c = read();
+                    if (c != '"')
+                        break;
+                }
+                append((char) c);
+            }
+        }
+        while (true) {
+            if (c == ',')
+                return END_FIELD;
+            if (c == '\n')
+                return END_RECORD;
+            if (c == '\r') {
+                //Treat \r\n as one line break.
+                int after = read();
+                if (after != '\n' && after != -1)
+                    pos--;
+                return END_RECORD;
+            }
+            if (c == -1)
+                return END_INPUT;
+            append((char) c);
+            c = read();
+        }
+    }
+
+    //This method returns the next char of the input, or -1 at the end.
+    private int read() throws IOException {
+        if (pos == limit) {
+            if (in == null)
+                return -1;
+            int n = in.read(buf, 0, buf.length);
+            if (n <= 0) {
+                pos = 0;
+                limit = 0;
+                return -1;
+            }
+            pos = 0;
+            limit = n;
+        }
+        return buf[pos++];
+    }
+
+    //This method adds c to the end of the current field, growing field[] if needed.
+    private void append(char c) {
+        if (fieldLen == field.length) {
+            char[] bigger = new char[field.length * 2];
+            System.arraycopy(field, 0, bigger, 0, fieldLen);
+            field = bigger;
+        }
+        field[fieldLen++] = c;
+    }
+
+    //This method returns the current field as a String.
+    private String text() {
+        return new String(field, 0, fieldLen);
+    }
+
+    //This method returns the current field as a String shared with every other
+    //record that has the same value in a low-cardinality column.
+    private String pooled() {
+        return pool.intern(field, 0, fieldLen);
+    }
+
+    //This method parses the current field as an int without creating a String.
+    private int parseInt() {
+        int i = 0;
+        boolean negative = false;
+        if (fieldLen > 0 && (field[0] == '-' || field[0] == '+')) {
+            negative = field[0] == '-';
+            i = 1;
+        }
+        if (i == fieldLen)
+            throw numberError();
+        //Accumulate as a negative number so Integer.MIN_VALUE fits.
+        long value = 0;
+        for (; i < fieldLen; i++) {
+            char ch = field[i];
+            if (ch < '0' || ch > '9')
+                throw numberError();
+            value = value * 10 - (ch - '0');
+            if (value < Integer.MIN_VALUE)
+                throw numberError();
+        }
+        if (!negative && value == Integer.MIN_VALUE)
+            throw numberError();
+        return (int) (negative ? value : -value);
+    }
+
+    //This method parses the current field as a double without creating a String.
+    //Plain decimals with up to 15 significant digits, which is every value in the
+    //dataset, are exact: the digits are read as a long and divided by a power of
+    //ten, and both are exactly representable. Anything else (exponents, more
+    //digits) falls back to Double.parseDouble.
+    private double parseDouble() {
+        int i = 0;
+        boolean negative = false;
+        if (fieldLen > 0 && (field[0] == '-' || field[0] == '+')) {
+            negative = field[0] == '-';
+            i = 1;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean dot = false;
+        for (; i < fieldLen; i++) {
+            char ch = field[i];
+            if (ch >= '0' && ch <= '9') {
+                digits = true;
+                mantissa = mantissa * 10 + (ch - '0');
+                if (mantissa != 0)
+                    significant++;
+                if (dot)
+                    scale++;
+                if (significant > 15 || scale >= POW10.length)
+                    return slowParseDouble();
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowParseDouble();
+            }
+        }
+        if (!digits)
+            throw numberError();
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    //This method parses the current field with Double.parseDouble.
+    private double slowParseDouble() {
+        return Double.parseDouble(text().trim());
+    }
+
+    //This method builds the exception for a field that is not a number.
+    private NumberFormatException numberError() {
+        return new NumberFormatException("record " + recordNumber + ": For input string: \"" + text() + "\"");
+    }
+}
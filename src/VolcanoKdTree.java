@@ -0,0 +1,309 @@
+/**********************************************************************
+ * @file VolcanoKdTree.java
+ * @brief This program implements the VolcanoKdTree class, a spatial index
+ * over volcano latitude and longitude. Each volcano is placed on the unit
+ * sphere as an (x, y, z) point, and the points go in a k-d tree split on
+ * whichever axis is widest. The straight-line (chord) distance between two
+ * points on the sphere grows with their great-circle distance, so nearest
+ * neighbour and radius searches on the chords give exact great-circle
+ * answers, with no special cases at the poles or the 180th meridian. Each
+ * subtree also keeps the latitude and longitude range of its volcanoes, so
+ * bounding-box queries skip subtrees outside the box. The tree is built
+ * once from a list in O(n log n) and then only read; build a new one if
+ * the records change.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class VolcanoKdTree {
+    //The mean radius of the Earth in km.
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    //The volcanoes in tree order. The subtree for [lo, hi) is rooted at
+    //(lo + hi) / 2, with the left subtree in [lo, mid) and the right in (mid, hi).
+    private final Volcano[] items;
+    //The points on the unit sphere, point[3 * i + axis] for items[i].
+    private final double[] point;
+    //The axis (0, 1 or 2) each node splits on.
+    private final byte[] axis;
+    //The latitude and longitude range of the subtree rooted at each node.
+    private final double[] minLat, maxLat, minLon, maxLon;
+
+    //The constructor builds the tree from the volcanoes in the list.
+    public VolcanoKdTree(List<Volcano> volcanoes) {
+        int n = volcanoes.size();
+        items = volcanoes.toArray(new Volcano[n]);
+        point = new double[3 * n];
+        axis = new byte[n];
+        minLat = new double[n];
+        maxLat = new double[n];
+        minLon = new double[n];
+        maxLon = new double[n];
+        for (int i = 0; i < n; i++)
+            toPoint(items[i].getLatitude(), items[i].getLongitude(), point, 3 * i);
+        build(0, n);
+    }
+
+    //This method returns the number of volcanoes in the tree.
+    public int size() {
+        return items.length;
+    }
+
+    //This method returns the k volcanoes nearest to (lat, lon), nearest first.
+    public List<Volcano> nearest(double lat, double lon, int k) {
+        double[] q = toPoint(lat, lon, new double[3], 0);
+        //The k best so far, with the farthest on top.
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.max(1, k), Collections.reverseOrder());
+        if (k > 0)
+            nearest(q, k, best, 0, items.length);
+        ArrayList<Hit> hits = new ArrayList<>(best);
+        Collections.sort(hits);
+        return volcanoes(hits);
+    }
+
+    //This method returns every volcano within km of (lat, lon) along the
+    //surface, nearest first.
+    public List<Volcano> withinRadius(double lat, double lon, double km) {
+        double[] q = toPoint(lat, lon, new double[3], 0);
+        ArrayList<Hit> hits = new ArrayList<>();
+        if (km >= 0)
+            withinRadius(q, chordSquared(km), hits, 0, items.length);
+        Collections.sort(hits);
+        return volcanoes(hits);
+    }
+
+    //This method returns every volcano with minLat <= latitude <= maxLat and
+    //longitude from west to east, in no particular order. If west > east the box
+    //crosses the 180th meridian, e.g. west = 170, east = -170.
+    public List<Volcano> withinBox(double minLat, double maxLat, double west, double east) {
+        ArrayList<Volcano> found = new ArrayList<>();
+        if (west <= east) {
+            withinBox(minLat, maxLat, west, east, found, 0, items.length);
+        } else {
+            withinBox(minLat, maxLat, west, 180, found, 0, items.length);
+            withinBox(minLat, maxLat, -180, east, found, 0, items.length);
+        }
+        return found;
+    }
+
+    //This method returns the great-circle distance in km between two points,
+    //with the haversine formula.
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    //This method builds the subtree for [lo, hi): the middle position gets the
+    //median along the widest axis, with smaller values before it.
+    private void build(int lo, int hi) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        byte a = widestAxis(lo, hi);
+        select(lo, hi, mid, a);
+        axis[mid] = a;
+        build(lo, mid);
+        build(mid + 1, hi);
+
+        //The subtree's box covers this volcano and both children's boxes.
+        double lat = items[mid].getLatitude();
+        double lon = items[mid].getLongitude();
+        minLat[mid] = maxLat[mid] = lat;
+        minLon[mid] = maxLon[mid] = lon;
+        if (lo < mid)
+            widen(mid, (lo + mid) >>> 1);
+        if (mid + 1 < hi)
+            widen(mid, (mid + 1 + hi) >>> 1);
+    }
+
+    //This method widens node's box to cover child's box.
+    private void widen(int node, int child) {
+        minLat[node] = Math.min(minLat[node], minLat[child]);
+        maxLat[node] = Math.max(maxLat[node], maxLat[child]);
+        minLon[node] = Math.min(minLon[node], minLon[child]);
+        maxLon[node] = Math.max(maxLon[node], maxLon[child]);
+    }
+
+    //This method returns the axis along which the points in [lo, hi) spread the most.
+    private byte widestAxis(int lo, int hi) {
+        byte widest = 0;
+        double widestSpread = -1;
+        for (byte a = 0; a < 3; a++) {
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = lo; i < hi; i++) {
+                double v = point[3 * i + a];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = a;
+            }
+        }
+        return widest;
+    }
+
+    //This method rearranges [lo, hi) so position k holds the value that belongs
+    //there in sorted order along axis a, with no larger values before it and no
+    //smaller ones after (quickselect).
+    private void select(int lo, int hi, int k, int a) {
+        hi--;
+        while (lo < hi) {
+            double pivot = point[3 * ((lo + hi) >>> 1) + a];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (point[3 * i + a] < pivot)
+                    i++;
+                while (point[3 * j + a] > pivot)
+                    j--;
+                if (i <= j)
+                    swap(i++, j--);
+            }
+            if (k <= j)
+                hi = j;
+            else if (k >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    //This method swaps two volcanoes and their points.
+    private void swap(int i, int j) {
+        Volcano v = items[i];
+        items[i] = items[j];
+        items[j] = v;
+        for (int a = 0; a < 3; a++) {
+            double t = point[3 * i + a];
+            point[3 * i + a] = point[3 * j + a];
+            point[3 * j + a] = t;
+        }
+    }
+
+    //This method is called by nearest() to search the subtree for [lo, hi).
+    private void nearest(double[] q, int k, PriorityQueue<Hit> best, int lo, int hi) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        double d = distanceSquared(q, mid);
+        if (best.size() < k) {
+            best.add(new Hit(items[mid], d));
+        } else if (d < best.peek().distance) {
+            best.poll();
+            best.add(new Hit(items[mid], d));
+        }
+
+        //Search the side q is on first, then the other side only if the
+        //splitting plane is closer than the kth best so far.
+        double diff = q[axis[mid]] - point[3 * mid + axis[mid]];
+        if (diff < 0) {
+            nearest(q, k, best, lo, mid);
+            if (best.size() < k || diff * diff < best.peek().distance)
+                nearest(q, k, best, mid + 1, hi);
+        } else {
+            nearest(q, k, best, mid + 1, hi);
+            if (best.size() < k || diff * diff < best.peek().distance)
+                nearest(q, k, best, lo, mid);
+        }
+    }
+
+    //This method is called by withinRadius() to search the subtree for [lo, hi).
+    private void withinRadius(double[] q, double limit, ArrayList<Hit> hits, int lo, int hi) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        double d = distanceSquared(q, mid);
+        if (d <= limit)
+            hits.add(new Hit(items[mid], d));
+        double diff = q[axis[mid]] - point[3 * mid + axis[mid]];
+        if (diff < 0 || diff * diff <= limit)
+            withinRadius(q, limit, hits, lo, mid);
+        if (diff >= 0 || diff * diff <= limit)
+            withinRadius(q, limit, hits, mid + 1, hi);
+    }
+
+    //This method is called by withinBox() to search the subtree for [lo, hi).
+    private void withinBox(double south, double north, double west, double east, ArrayList<Volcano> found,
+                           int lo, int hi) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        //Skip a subtree outside the box.
+        if (maxLat[mid] < south || minLat[mid] > north || maxLon[mid] < west || minLon[mid] > east)
+            return;
+        //Take all of a subtree inside the box.
+        if (minLat[mid] >= south && maxLat[mid] <= north && minLon[mid] >= west && maxLon[mid] <= east) {
+            for (int i = lo; i < hi; i++)
+                found.add(items[i]);
+            return;
+        }
+        double lat = items[mid].getLatitude();
+        double lon = items[mid].getLongitude();
+        if (lat >= south && lat <= north && lon >= west && lon <= east)
+            found.add(items[mid]);
+        withinBox(south, north, west, east, found, lo, mid);
+        withinBox(south, north, west, east, found, mid + 1, hi);
+    }
+
+    //This method returns the squared chord distance from q to items[i].
+    private double distanceSquared(double[] q, int i) {
+        double dx = q[0] - point[3 * i];
+        double dy = q[1] - point[3 * i + 1];
+        double dz = q[2] - point[3 * i + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    //This method returns the squared chord length of an arc of km on the unit
+    //sphere. Arcs of half the circumference or more cover the whole sphere.
+    private static double chordSquared(double km) {
+        double angle = km / EARTH_RADIUS_KM;
+        if (angle >= Math.PI)
+            return 4;
+        double chord = 2 * Math.sin(angle / 2);
+        return chord * chord;
+    }
+
+    //This method stores the unit-sphere point for (lat, lon) in p[off..off+2].
+    private static double[] toPoint(double lat, double lon, double[] p, int off) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        p[off] = Math.cos(phi) * Math.cos(lambda);
+        p[off + 1] = Math.cos(phi) * Math.sin(lambda);
+        p[off + 2] = Math.sin(phi);
+        return p;
+    }
+
+    //This method returns the volcanoes of the hits, in the same order.
+    private static List<Volcano> volcanoes(List<Hit> hits) {
+        ArrayList<Volcano> found = new ArrayList<>(hits.size());
+        for (Hit h : hits)
+            found.add(h.volcano);
+        return found;
+    }
+
+    //A hit is a volcano and its squared chord distance from the query.
+    private static final class Hit implements Comparable<Hit> {
+        final Volcano volcano;
+        final double distance;
+
+        Hit(Volcano volcano, double distance) {
+            this.volcano = volcano;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            return Double.compare(distance, other.distance);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**********************************************************************
+ * @file ZipfGenerator.java
+ * @brief This program implements the ZipfGenerator class, which draws
+ * ranks 0..n-1 from a Zipf distribution: rank k is drawn with probability
+ * proportional to 1 / (k + 1)^s. With s near 1 a few hundred ranks take
+ * most of the draws, like lookups of famous volcanoes, and with s = 0
+ * every rank is equally likely. Proj2 --zipf uses it to build skewed
+ * search workloads.
+ * @author Wynne Greene
+ * @date: October 24, 2024
+ ***********************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ZipfGenerator {
+    //cdf[k] is the probability of drawing a rank <= k.
+    private final double[] cdf;
+    private final Random rand;
+
+    //The constructor precomputes the distribution over n ranks with exponent s.
+    public ZipfGenerator(int n, double s, Random rand) {
+        if (n <= 0 || s < 0)
+            throw new IllegalArgumentException("need n > 0 and s >= 0: n=" + n + ", s=" + s);
+        this.rand = rand;
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++)
+            cdf[k] /= sum;
+    }
+
+    //This method draws the next rank, in O(log n).
+    public int next() {
+        int i = Arrays.binarySearch(cdf, rand.nextDouble());
+        //A miss returns -(insertion point) - 1; the insertion point is the rank.
+        int rank = i >= 0 ? i : -i - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}